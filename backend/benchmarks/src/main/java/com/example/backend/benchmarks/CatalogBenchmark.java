@@ -0,0 +1,76 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Category;
+import com.example.backend.entity.FoodItem;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.service.CatalogCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Menu reads served by CatalogCache: the per-category listing, a single item and
+ * full-text search with whole-word, prefix and multi-word queries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogBenchmark {
+
+    @Param({"500"})
+    public int items;
+
+    private CatalogCache catalogCache;
+
+    @Setup
+    public void setUp() {
+        List<Category> categories = Fixtures.categories();
+        List<FoodItem> foodItems = Fixtures.foodItems(categories, items);
+        catalogCache = new CatalogCache();
+        Fixtures.inject(catalogCache, "categoryRepository",
+            Fixtures.stub(CategoryRepository.class, Map.of("findAll", categories)));
+        Fixtures.inject(catalogCache, "foodItemRepository",
+            Fixtures.stub(FoodItemRepository.class, Map.of("findAllWithCategory", foodItems)));
+        catalogCache.warmUp();
+    }
+
+    @Benchmark
+    public List<FoodItem> itemsByCategory() {
+        return catalogCache.getItemsByCategory(3L);
+    }
+
+    @Benchmark
+    public FoodItem item() {
+        return catalogCache.getItem(42L);
+    }
+
+    @Benchmark
+    public List<FoodItem> searchWord() {
+        return catalogCache.search("chicken");
+    }
+
+    @Benchmark
+    public List<FoodItem> searchPrefix() {
+        return catalogCache.search("pi");
+    }
+
+    @Benchmark
+    public List<FoodItem> searchPhrase() {
+        return catalogCache.search("spicy jalapeno pizza");
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Coupon;
+import com.example.backend.repository.CouponRepository;
+import com.example.backend.service.CouponService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CouponService.validate against its in-memory index, for a usable code and for the
+ * rejected cases that are answered with an exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CouponValidationBenchmark {
+
+    private CouponService couponService;
+
+    @Setup
+    public void setUp() {
+        couponService = new CouponService();
+        Fixtures.inject(couponService, "couponRepository",
+            Fixtures.stub(CouponRepository.class, Map.of("findByActiveTrue", Fixtures.coupons(500))));
+        couponService.refresh();
+    }
+
+    @Benchmark
+    public Coupon validCode() {
+        return couponService.validate(" save42 ");
+    }
+
+    @Benchmark
+    public Object expiredCode() {
+        return rejected("SAVE49");
+    }
+
+    @Benchmark
+    public Object unknownCode() {
+        return rejected("NOSUCHCODE");
+    }
+
+    private Object rejected(String code) {
+        try {
+            return couponService.validate(code);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
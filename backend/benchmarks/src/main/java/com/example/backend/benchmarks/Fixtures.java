@@ -0,0 +1,161 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Category;
+import com.example.backend.entity.Coupon;
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.User;
+import com.example.backend.service.OrderService;
+import org.springframework.util.ReflectionUtils;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic menu, coupon and order data shared by the benchmarks, plus stub
+ * repositories so services can be exercised without a database.
+ */
+final class Fixtures {
+
+    private static final String[] CATEGORIES = {
+        "Pizza", "Burgers", "Salads", "Desserts", "Drinks", "Curries", "Noodles", "Sandwiches"
+    };
+    private static final String[] STYLES = {
+        "Classic", "Spicy", "Smoky", "Crispy", "Garlic", "Grilled", "Creamy", "Tandoori", "Sweet", "Vegan"
+    };
+    private static final String[] INGREDIENTS = {
+        "Chicken", "Paneer", "Mushroom", "Beef", "Tofu", "Prawn", "Lamb", "Cheese", "Avocado", "Jalapeño",
+        "Pepperoni", "Spinach", "Mango", "Chocolate", "Lemon"
+    };
+
+    private Fixtures() {
+    }
+
+    static List<Category> categories() {
+        List<Category> categories = new ArrayList<>(CATEGORIES.length);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setName(CATEGORIES[i]);
+            category.setDescription(CATEGORIES[i] + " made to order");
+            category.setActive(true);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    static List<FoodItem> foodItems(List<Category> categories, int count) {
+        List<FoodItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Category category = categories.get(i % categories.size());
+            String style = STYLES[(i / categories.size()) % STYLES.length];
+            String ingredient = INGREDIENTS[i % INGREDIENTS.length];
+            FoodItem item = new FoodItem();
+            item.setId((long) i + 1);
+            item.setName(style + " " + ingredient + " " + category.getName());
+            item.setDescription("A " + style.toLowerCase() + " take on " + category.getName().toLowerCase()
+                + " with fresh " + ingredient.toLowerCase() + ", served hot with a side of house sauce.");
+            item.setPrice(BigDecimal.valueOf(199 + (i * 37) % 800, 2));
+            item.setImageUrl("/uploads/" + (i + 1) + ".jpg");
+            item.setCategory(category);
+            item.setAvailable(i % 10 != 9);
+            item.setStockQuantity(100);
+            item.setAverageRating(1.0 + (i * 7) % 40 / 10.0);
+            item.setRatingCount(i % 50);
+            items.add(item);
+        }
+        return items;
+    }
+
+    static List<Coupon> coupons(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Coupon> coupons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Coupon coupon = new Coupon();
+            coupon.setId((long) i + 1);
+            coupon.setCode("SAVE" + i);
+            coupon.setDescription("Benchmark coupon " + i);
+            if (i % 2 == 0) {
+                coupon.setDiscountPercentage(BigDecimal.TEN);
+            } else {
+                coupon.setDiscountAmount(BigDecimal.valueOf(50));
+            }
+            coupon.setMinOrderAmount(BigDecimal.valueOf(100));
+            coupon.setValidFrom(now.minusDays(30));
+            coupon.setValidTo(i % 10 == 9 ? now.minusDays(1) : now.plusYears(1));
+            coupon.setActive(true);
+            coupon.setUsageLimit(1_000_000);
+            coupon.setUsedCount(i);
+            coupons.add(coupon);
+        }
+        return coupons;
+    }
+
+    static User user() {
+        User user = new User();
+        user.setId(42L);
+        user.setName("Benchmark User");
+        user.setEmail("bench@example.com");
+        user.setPhone("+1 555 0100");
+        user.setAddress("1 Main Street");
+        user.setPassword("$2a$10$notarealhashnotarealhashnotarealhashnotarealhashnotar");
+        user.setRole(User.Role.USER);
+        return user;
+    }
+
+    static Order order(User user, List<FoodItem> menu, int lines) {
+        Order order = new Order();
+        order.setId(1000L);
+        order.setUser(user);
+        order.setDeliveryAddress(user.getAddress());
+        order.setNotes("Ring the bell twice");
+        order.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 30));
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, FoodItem> byId = new HashMap<>();
+        for (FoodItem item : menu) {
+            if (Boolean.TRUE.equals(item.getAvailable()) && quantities.size() < lines) {
+                quantities.put(item.getId(), 1 + quantities.size() % 3);
+                byId.put(item.getId(), item);
+            }
+        }
+        BigDecimal subtotal = OrderService.priceItems(order, quantities, byId);
+        order.setSubtotal(subtotal);
+        order.setTotalAmount(subtotal);
+        return order;
+    }
+
+    /**
+     * Implements a repository interface by answering the named methods with fixed
+     * results; anything else throws.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> repository, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] {repository},
+            (proxy, method, args) -> {
+                if (answers.containsKey(method.getName())) {
+                    return answers.get(method.getName());
+                }
+                return switch (method.getName()) {
+                    case "toString" -> repository.getSimpleName() + " stub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            });
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + fieldName);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Category;
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the payloads behind GET /api/food and the order endpoints,
+ * with the same mapper settings Spring Boot applies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private FoodItem foodItem;
+    private List<FoodItem> menu;
+    private Order order;
+    private List<Order> orderHistory;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        List<Category> categories = Fixtures.categories();
+        menu = Fixtures.foodItems(categories, 200);
+        foodItem = menu.get(0);
+        order = Fixtures.order(Fixtures.user(), menu, 5);
+        orderHistory = Collections.nCopies(20, order);
+    }
+
+    @Benchmark
+    public byte[] foodItem() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(foodItem);
+    }
+
+    @Benchmark
+    public byte[] menu() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(menu);
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] orderHistory() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderHistory);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Order;
+import com.example.backend.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line pricing and subtotal for a new order, as done by OrderService.placeOrder once
+ * the food items have been loaded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPricingBenchmark {
+
+    @Param({"3", "25"})
+    public int lines;
+
+    private Map<Long, Integer> quantities;
+    private Map<Long, FoodItem> foodItems;
+
+    @Setup
+    public void setUp() {
+        List<FoodItem> menu = Fixtures.foodItems(Fixtures.categories(), 200);
+        quantities = new LinkedHashMap<>();
+        foodItems = new HashMap<>();
+        for (FoodItem item : menu) {
+            if (Boolean.TRUE.equals(item.getAvailable()) && quantities.size() < lines) {
+                quantities.put(item.getId(), 1 + quantities.size() % 4);
+                foodItems.put(item.getId(), item);
+            }
+        }
+    }
+
+    @Benchmark
+    public BigDecimal priceOrder() {
+        Order order = new Order();
+        BigDecimal subtotal = OrderService.priceItems(order, quantities, foodItems);
+        order.setSubtotal(subtotal);
+        order.setTotalAmount(subtotal.subtract(order.getDiscountAmount()));
+        return order.getTotalAmount();
+    }
+}
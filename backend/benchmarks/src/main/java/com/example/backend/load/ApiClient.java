@@ -0,0 +1,106 @@
+package com.example.backend.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * The backend's REST API as the Flutter app calls it. Every call is timed under an
+ * endpoint name with path variables templated out, so results aggregate per route.
+ */
+final class ApiClient {
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final LoadMetrics metrics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    ApiClient(String baseUrl, Duration timeout, LoadMetrics metrics) {
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.metrics = metrics;
+    }
+
+    JsonNode get(String endpoint, String path, String token) throws ApiException, InterruptedException {
+        return send(endpoint, request(path, token).GET());
+    }
+
+    JsonNode delete(String endpoint, String path, String token) throws ApiException, InterruptedException {
+        return send(endpoint, request(path, token).DELETE());
+    }
+
+    JsonNode post(String endpoint, String path, String token, Object body) throws ApiException, InterruptedException {
+        return send(endpoint, request(path, token).POST(json(body)));
+    }
+
+    JsonNode put(String endpoint, String path, String token, Object body) throws ApiException, InterruptedException {
+        return send(endpoint, request(path, token).PUT(json(body)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(timeout)
+            .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+
+    private JsonNode send(String endpoint, HttpRequest.Builder request) throws ApiException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            metrics.recordRequest(endpoint, start, System.nanoTime(), e.getClass().getSimpleName(), false);
+            throw new ApiException(endpoint, -1, e.toString());
+        }
+        long end = System.nanoTime();
+        int status = response.statusCode();
+        boolean ok = status >= 200 && status < 300;
+        metrics.recordRequest(endpoint, start, end, String.valueOf(status), ok);
+        if (!ok) {
+            throw new ApiException(endpoint, status, new String(response.body()));
+        }
+        try {
+            return response.body().length > 0 ? objectMapper.readTree(response.body()) : null;
+        } catch (IOException e) {
+            throw new ApiException(endpoint, status, "unreadable body: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A response that was not a 2xx, or no response at all; status is -1 when the
+     * request failed before a response arrived.
+     */
+    static final class ApiException extends Exception {
+        final int status;
+
+        ApiException(String endpoint, int status, String detail) {
+            super(endpoint + " failed: " + (status > 0 ? status + " " : "") + detail);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.backend.load;
+
+import com.example.backend.load.ApiClient.ApiException;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * One app session, following the screens of the Flutter client: home, a category,
+ * a search, an item's reviews, the wishlist heart, a rating, checkout and then
+ * watching the order history.
+ */
+final class ClientFlow {
+
+    private static final String[] COMMENTS = {"Great", "Would order again", "A bit cold", "Perfect portion", ""};
+
+    private final ApiClient api;
+    private final LoadOptions options;
+    private final Catalog catalog;
+
+    ClientFlow(ApiClient api, LoadOptions options, Catalog catalog) {
+        this.api = api;
+        this.options = options;
+        this.catalog = catalog;
+    }
+
+    record Catalog(List<Long> categoryIds, List<Long> foodItemIds, Map<Long, BigDecimal> prices,
+                   List<String> searchTerms) {
+
+        static Catalog load(ApiClient api, String token) throws ApiException, InterruptedException {
+            List<Long> categoryIds = new ArrayList<>();
+            for (JsonNode category : api.get("GET /api/categories", "/api/categories", token)) {
+                categoryIds.add(category.get("id").asLong());
+            }
+            List<Long> foodItemIds = new ArrayList<>();
+            Map<Long, BigDecimal> prices = new HashMap<>();
+            List<String> searchTerms = new ArrayList<>();
+            for (JsonNode item : api.get("GET /api/food", "/api/food", token)) {
+                foodItemIds.add(item.get("id").asLong());
+                prices.put(item.get("id").asLong(), item.get("price").decimalValue());
+                for (String word : item.get("name").asText().split("\\s+")) {
+                    if (word.length() >= 3) {
+                        searchTerms.add(word.toLowerCase());
+                        // Users type partial words into the search box too
+                        searchTerms.add(word.substring(0, 3).toLowerCase());
+                    }
+                }
+            }
+            if (categoryIds.isEmpty() || foodItemIds.isEmpty()) {
+                throw new IllegalStateException("The backend has no categories or available food items");
+            }
+            return new Catalog(List.copyOf(categoryIds), List.copyOf(foodItemIds), Map.copyOf(prices),
+                List.copyOf(searchTerms));
+        }
+    }
+
+    static final class VirtualUser {
+        final long id;
+        final String email;
+        final String password;
+        volatile String token;
+
+        VirtualUser(long id, String email, String password, String token) {
+            this.id = id;
+            this.email = email;
+            this.password = password;
+            this.token = token;
+        }
+    }
+
+    void run(VirtualUser user, SplittableRandom random) throws ApiException, InterruptedException {
+        if (random.nextDouble() < options.loginRatio()) {
+            login(user);
+        }
+        String token = user.token;
+
+        api.get("GET /api/categories", "/api/categories", token);
+        api.get("GET /api/food", "/api/food", token);
+        api.get("GET /api/food/top-rated", "/api/food/top-rated", token);
+        think(random);
+
+        long categoryId = pick(catalog.categoryIds(), random);
+        api.get("GET /api/food/category/{id}", "/api/food/category/" + categoryId, token);
+        think(random);
+
+        String term = pick(catalog.searchTerms(), random);
+        api.get("GET /api/food/search", "/api/food/search?query=" + URLEncoder.encode(term, StandardCharsets.UTF_8),
+            token);
+        think(random);
+
+        long foodItemId = pick(catalog.foodItemIds(), random);
+        api.get("GET /api/ratings/food/{id}", "/api/ratings/food/" + foodItemId, token);
+        toggleWishlist(user, token, foodItemId);
+        think(random);
+
+        rate(token, foodItemId, random);
+        think(random);
+
+        placeOrder(user, token, random);
+        for (int i = 0; i < options.historyPolls(); i++) {
+            think(random);
+            api.get("GET /api/orders/user/{id}/summaries", "/api/orders/user/" + user.id + "/summaries", token);
+        }
+    }
+
+    void checkout(VirtualUser user, SplittableRandom random) throws ApiException, InterruptedException {
+        placeOrder(user, user.token, random);
+    }
+
+    private void login(VirtualUser user) throws ApiException, InterruptedException {
+        try {
+            JsonNode response = api.post("POST /api/auth/login", "/api/auth/login", null,
+                Map.of("email", user.email, "password", user.password));
+            user.token = response.path("token").asText(null);
+        } catch (ApiException e) {
+            // Shed with 503 while the hashing queue is full; the app keeps its previous token
+            if (e.status != 503) {
+                throw e;
+            }
+        }
+    }
+
+    private void toggleWishlist(VirtualUser user, String token, long foodItemId)
+            throws ApiException, InterruptedException {
+        try {
+            api.post("POST /api/wishlist", "/api/wishlist", token, Map.of("foodItemId", foodItemId));
+        } catch (ApiException e) {
+            // Already in the wishlist, e.g. from another session of the same user
+            if (e.status != 400) {
+                throw e;
+            }
+        }
+        api.get("GET /api/wishlist/user/{id}", "/api/wishlist/user/" + user.id, token);
+        api.delete("DELETE /api/wishlist/user/{id}/item/{id}",
+            "/api/wishlist/user/" + user.id + "/item/" + foodItemId, token);
+    }
+
+    private void rate(String token, long foodItemId, SplittableRandom random)
+            throws ApiException, InterruptedException {
+        Map<String, Object> rating = new LinkedHashMap<>();
+        rating.put("foodItemId", foodItemId);
+        rating.put("rating", 1 + random.nextInt(5));
+        rating.put("comment", COMMENTS[random.nextInt(COMMENTS.length)]);
+        try {
+            api.post("POST /api/ratings", "/api/ratings", token, rating);
+        } catch (ApiException e) {
+            // Lost a race with a concurrent first rating by the same user
+            if (e.status != 409) {
+                throw e;
+            }
+        }
+    }
+
+    private void placeOrder(VirtualUser user, String token, SplittableRandom random)
+            throws ApiException, InterruptedException {
+        int lines = 1 + random.nextInt(3);
+        List<Map<String, Object>> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            long foodItemId = pick(catalog.foodItemIds(), random);
+            // Sent as the app sends them; servers since server-side pricing and bearer tokens ignore both
+            items.add(Map.of("foodItem", Map.of("id", foodItemId), "quantity", 1 + random.nextInt(2),
+                "price", catalog.prices().get(foodItemId)));
+        }
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("userId", user.id);
+        order.put("items", items);
+        order.put("orderType", random.nextInt(4) == 0 ? "TAKEAWAY" : "DELIVERY");
+        order.put("paymentMethod", "COD");
+        order.put("deliveryAddress", "Load test street " + user.id);
+        order.put("notes", "");
+        api.post("POST /api/orders", "/api/orders", token, order);
+    }
+
+    private void think(SplittableRandom random) throws InterruptedException {
+        long millis = options.thinkTime().toMillis();
+        if (millis > 0) {
+            // Uniform around the mean so sessions do not march in lockstep
+            Thread.sleep(random.nextLong(millis / 2, millis * 3 / 2 + 1));
+        }
+    }
+
+    private static <T> T pick(List<T> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.backend.load;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.load.ApiClient.ApiException;
+import com.example.backend.load.ClientFlow.Catalog;
+import com.example.backend.load.ClientFlow.VirtualUser;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator. Sessions arrive at a fixed average rate whether or
+ * not earlier ones have finished, each on its own virtual thread, and replay the app's
+ * flows against a running backend or one started in-process on the h2 profile.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.backend.load.LoadGenerator --embedded --rate 20 --duration 60
+ * java -cp target/benchmarks.jar com.example.backend.load.LoadGenerator --flow checkout --rate 2000 --max-sessions 64
+ * java -cp target/benchmarks.jar com.example.backend.load.LoadGenerator compare base.json new.json
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String USER_PASSWORD = "load-test-password";
+    private static final int MAX_LOGGED_FAILURES = 10;
+
+    private final LoadOptions options;
+    private final LoadMetrics metrics = new LoadMetrics();
+    private final ApiClient api;
+    private final AtomicInteger loggedFailures = new AtomicInteger();
+
+    private LoadGenerator(LoadOptions options, String baseUrl) {
+        this.options = options;
+        this.api = new ApiClient(baseUrl, options.requestTimeout(), metrics);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("compare")) {
+            System.exit(LoadReport.compare(args, System.out));
+        }
+        LoadOptions options = LoadOptions.parse(args);
+        ConfigurableApplicationContext backend = null;
+        String baseUrl = options.baseUrl();
+        if (options.embedded()) {
+            backend = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("h2")
+                .run("--server.port=0", "--management.server.port=0", "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + backend.getEnvironment().getRequiredProperty("local.server.port");
+        }
+        try {
+            new LoadGenerator(options, baseUrl).run();
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        String adminToken = login(options.adminEmail(), options.adminPassword());
+        if (options.restock()) {
+            restock(adminToken);
+        }
+        Catalog catalog = Catalog.load(api, adminToken);
+        List<VirtualUser> users = registerUsers();
+        ClientFlow flow = new ClientFlow(api, options, catalog);
+
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        metrics.startMeasuring(measureFrom);
+        metrics.stopMeasuring(end);
+        System.out.printf("Running %.1f %s sessions/s (%s) for %ds after %ds warmup with %d users%n",
+            options.rate(), options.flow().name().toLowerCase(), options.arrivals().name().toLowerCase(),
+            options.duration().toSeconds(), options.warmup().toSeconds(), users.size());
+
+        SplittableRandom random = new SplittableRandom(options.seed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long next = start;
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (next < end) {
+                long now;
+                while ((now = System.nanoTime()) < next) {
+                    LockSupport.parkNanos(next - now);
+                }
+                long scheduled = next;
+                metrics.recordScheduleLag(scheduled, now - scheduled);
+                SplittableRandom sessionRandom = random.split();
+                VirtualUser user = users.get(sessionRandom.nextInt(users.size()));
+                if (metrics.tryStartSession(scheduled, options.maxSessions())) {
+                    sessions.execute(() -> runSession(flow, user, sessionRandom, scheduled));
+                }
+                // Gaps are taken from the intended schedule, not from when the last session started
+                next += options.arrivals() == LoadOptions.Arrivals.POISSON
+                    ? (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos)
+                    : (long) meanGapNanos;
+            }
+            System.out.println("Arrivals finished; waiting for sessions in flight");
+        }
+
+        Map<String, Object> report = LoadReport.build(options, metrics);
+        LoadReport.write(report, options.report());
+        LoadReport.print(report, System.out);
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+
+    private void runSession(ClientFlow flow, VirtualUser user, SplittableRandom random, long scheduled) {
+        boolean completed = false;
+        try {
+            if (options.flow() == LoadOptions.Flow.CHECKOUT) {
+                flow.checkout(user, random);
+            } else {
+                flow.run(user, random);
+            }
+            completed = true;
+        } catch (ApiException e) {
+            if (loggedFailures.incrementAndGet() <= MAX_LOGGED_FAILURES) {
+                System.err.println("Session failed: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            metrics.endSession(scheduled, completed);
+        }
+    }
+
+    private String login(String email, String password) throws ApiException, InterruptedException {
+        JsonNode response = api.post("POST /api/auth/login", "/api/auth/login", null,
+            Map.of("email", email, "password", password));
+        // Builds from before bearer tokens answer with the bare user, so older runs compare too
+        return response.path("token").asText(null);
+    }
+
+    /**
+     * Tops every item up to a large stock so placed orders are not rejected as sold out
+     * part way through a run.
+     */
+    private void restock(String adminToken) throws ApiException, InterruptedException {
+        int restocked = 0;
+        for (JsonNode item : api.get("GET /api/food/admin", "/api/food/admin", adminToken)) {
+            if (!item.hasNonNull("category")) {
+                continue;
+            }
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("name", item.get("name").asText());
+            request.put("description", item.path("description").asText(null));
+            request.put("price", item.get("price").decimalValue());
+            request.put("imageUrl", item.path("imageUrl").asText(null));
+            request.put("categoryId", item.get("category").get("id").asLong());
+            request.put("stockQuantity", 1_000_000);
+            request.put("available", true);
+            api.put("PUT /api/food/{id}", "/api/food/" + item.get("id").asLong(), adminToken, request);
+            restocked++;
+        }
+        System.out.println("Restocked " + restocked + " food items");
+    }
+
+    private List<VirtualUser> registerUsers() throws ApiException, InterruptedException {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<VirtualUser> users = new ArrayList<>(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            Map<String, Object> request = Map.of(
+                "email", "load-" + run + "-" + i + "@example.com",
+                "password", USER_PASSWORD,
+                "name", "Load User " + i);
+            JsonNode response = null;
+            while (response == null) {
+                try {
+                    response = api.post("POST /api/auth/register", "/api/auth/register", null, request);
+                } catch (ApiException e) {
+                    if (e.status != 503) {
+                        throw e;
+                    }
+                    Thread.sleep(1000);
+                }
+            }
+            users.add(new VirtualUser(response.get("id").asLong(), response.get("email").asText(), USER_PASSWORD,
+                response.path("token").asText(null)));
+        }
+        System.out.println("Registered " + users.size() + " users");
+        return users;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.backend.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and status counts. Only requests that start after
+ * the warmup are recorded.
+ */
+final class LoadMetrics {
+
+    // Microsecond resolution up to an hour, three significant digits
+    private static final long MAX_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p75", "p90", "p95", "p99", "p999"};
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Histogram scheduleLag = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder sessionsStarted = new LongAdder();
+    private final LongAdder sessionsCompleted = new LongAdder();
+    private final LongAdder sessionsFailed = new LongAdder();
+    private final LongAdder sessionsDropped = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+    private volatile long measureToNanos = Long.MAX_VALUE;
+
+    void startMeasuring(long nanos) {
+        measureFromNanos = nanos;
+    }
+
+    void stopMeasuring(long nanos) {
+        measureToNanos = nanos;
+    }
+
+    boolean measuring(long startNanos) {
+        return startNanos >= measureFromNanos && startNanos < measureToNanos;
+    }
+
+    double measuredSeconds() {
+        return (measureToNanos - measureFromNanos) / 1e9;
+    }
+
+    void recordRequest(String endpoint, long startNanos, long endNanos, String status, boolean ok) {
+        if (!measuring(startNanos)) {
+            return;
+        }
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, e -> new EndpointStats());
+        stats.latency.recordValue(Math.min(MAX_MICROS, TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos)));
+        stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    void recordScheduleLag(long startNanos, long lagNanos) {
+        if (measuring(startNanos)) {
+            scheduleLag.recordValue(Math.min(MAX_MICROS, TimeUnit.NANOSECONDS.toMicros(Math.max(0, lagNanos))));
+        }
+    }
+
+    boolean tryStartSession(long startNanos, int maxSessions) {
+        int current = inFlight.incrementAndGet();
+        if (current > maxSessions) {
+            inFlight.decrementAndGet();
+            if (measuring(startNanos)) {
+                sessionsDropped.increment();
+            }
+            return false;
+        }
+        maxInFlight.accumulateAndGet(current, Math::max);
+        if (measuring(startNanos)) {
+            sessionsStarted.increment();
+        }
+        return true;
+    }
+
+    void endSession(long startNanos, boolean completed) {
+        inFlight.decrementAndGet();
+        if (measuring(startNanos)) {
+            (completed ? sessionsCompleted : sessionsFailed).increment();
+        }
+    }
+
+    Map<String, Object> sessions() {
+        Map<String, Object> sessions = new LinkedHashMap<>();
+        sessions.put("started", sessionsStarted.sum());
+        sessions.put("completed", sessionsCompleted.sum());
+        sessions.put("failed", sessionsFailed.sum());
+        sessions.put("dropped", sessionsDropped.sum());
+        sessions.put("maxInFlight", maxInFlight.get());
+        sessions.put("scheduleLagMillis", percentiles(scheduleLag));
+        return sessions;
+    }
+
+    Map<String, Map<String, Object>> endpoints() {
+        double seconds = measuredSeconds();
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        Histogram total = new Histogram(MAX_MICROS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            Histogram latency = stats.latency.copy();
+            total.add(latency);
+            totalErrors += stats.errors.sum();
+            result.put(entry.getKey(), summary(latency, stats.errors.sum(), stats.statusCounts(), seconds));
+        }
+        result.put("ALL", summary(total, totalErrors, null, seconds));
+        return result;
+    }
+
+    private static Map<String, Object> summary(Histogram latency, long errors, Map<String, Long> statuses,
+                                               double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long requests = latency.getTotalCount();
+        summary.put("requests", requests);
+        summary.put("errors", errors);
+        summary.put("errorRate", requests > 0 ? (double) errors / requests : 0.0);
+        summary.put("throughput", seconds > 0 ? requests / seconds : 0.0);
+        if (statuses != null) {
+            summary.put("statusCodes", statuses);
+        }
+        summary.put("latencyMillis", percentiles(latency));
+        summary.put("histogram", encode(latency));
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        boolean empty = histogram.getTotalCount() == 0;
+        percentiles.put("min", empty ? 0.0 : millis(histogram.getMinValue()));
+        percentiles.put("mean", empty ? 0.0 : histogram.getMean() / 1000.0);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put(PERCENTILE_NAMES[i], millis(histogram.getValueAtPercentile(PERCENTILES[i])));
+        }
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // Compressed HdrHistogram encoding, so runs can be merged or re-analysed later
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static final class EndpointStats {
+        final Histogram latency = new ConcurrentHistogram(MAX_MICROS, 3);
+        final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+
+        Map<String, Long> statusCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.backend.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line settings for a load run, given as --name=value or --name value.
+ */
+record LoadOptions(
+    String baseUrl,
+    boolean embedded,
+    Flow flow,
+    double rate,
+    Arrivals arrivals,
+    Duration duration,
+    Duration warmup,
+    int users,
+    double loginRatio,
+    Duration thinkTime,
+    int historyPolls,
+    int maxSessions,
+    Duration requestTimeout,
+    boolean restock,
+    String adminEmail,
+    String adminPassword,
+    long seed,
+    Path report
+) {
+
+    enum Arrivals { CONSTANT, POISSON }
+
+    // APP replays a whole app session; CHECKOUT only places one order, to find peak order throughput
+    enum Flow { APP, CHECKOUT }
+
+    private static final Set<String> FLAGS = Set.of("embedded");
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            String name = arg.substring(2);
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                values.put(name.substring(0, eq), name.substring(eq + 1));
+            } else if (FLAGS.contains(name)) {
+                values.put(name, "true");
+            } else if (i + 1 < args.length) {
+                values.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+
+        LoadOptions options = new LoadOptions(
+            values.getOrDefault("base-url", "http://localhost:8080"),
+            Boolean.parseBoolean(values.getOrDefault("embedded", "false")),
+            Flow.valueOf(values.getOrDefault("flow", "app").toUpperCase()),
+            Double.parseDouble(values.getOrDefault("rate", "10")),
+            Arrivals.valueOf(values.getOrDefault("arrivals", "poisson").toUpperCase()),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+            Integer.parseInt(values.getOrDefault("users", "50")),
+            Double.parseDouble(values.getOrDefault("login-ratio", "0.1")),
+            Duration.ofMillis(Long.parseLong(values.getOrDefault("think-ms", "50"))),
+            Integer.parseInt(values.getOrDefault("history-polls", "3")),
+            Integer.parseInt(values.getOrDefault("max-sessions", "10000")),
+            Duration.ofSeconds(Long.parseLong(values.getOrDefault("timeout", "10"))),
+            Boolean.parseBoolean(values.getOrDefault("restock", "true")),
+            values.getOrDefault("admin-email", "admin@foodapp.com"),
+            values.getOrDefault("admin-password", "admin123"),
+            Long.parseLong(values.getOrDefault("seed", "42")),
+            Path.of(values.getOrDefault("report", "load-report.json"))
+        );
+        if (options.rate <= 0 || options.users < 1 || options.maxSessions < 1) {
+            throw new IllegalArgumentException("rate, users and max-sessions must be positive");
+        }
+        if (options.loginRatio < 0 || options.loginRatio > 1) {
+            throw new IllegalArgumentException("login-ratio must be between 0 and 1");
+        }
+        return options;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("baseUrl", embedded ? "embedded" : baseUrl);
+        map.put("flow", flow.name().toLowerCase());
+        map.put("rate", rate);
+        map.put("arrivals", arrivals.name().toLowerCase());
+        map.put("durationSeconds", duration.toSeconds());
+        map.put("warmupSeconds", warmup.toSeconds());
+        map.put("users", users);
+        map.put("loginRatio", loginRatio);
+        map.put("thinkMillis", thinkTime.toMillis());
+        map.put("historyPolls", historyPolls);
+        map.put("maxSessions", maxSessions);
+        map.put("seed", seed);
+        return map;
+    }
+}
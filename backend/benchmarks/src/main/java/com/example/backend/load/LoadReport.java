@@ -0,0 +1,109 @@
+package com.example.backend.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes a run as JSON and compares two such reports endpoint by endpoint.
+ */
+final class LoadReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private LoadReport() {
+    }
+
+    static Map<String, Object> build(LoadOptions options, LoadMetrics metrics) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("options", options.toMap());
+        report.put("measuredSeconds", metrics.measuredSeconds());
+        report.put("sessions", metrics.sessions());
+        report.put("endpoints", metrics.endpoints());
+        return report;
+    }
+
+    static void write(Map<String, Object> report, Path path) throws IOException {
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+    }
+
+    static void print(Map<String, Object> report, PrintStream out) {
+        JsonNode json = OBJECT_MAPPER.valueToTree(report);
+        JsonNode sessions = json.get("sessions");
+        out.printf("Sessions: %d started, %d completed, %d failed, %d dropped, %d max in flight%n",
+            sessions.get("started").asLong(), sessions.get("completed").asLong(), sessions.get("failed").asLong(),
+            sessions.get("dropped").asLong(), sessions.get("maxInFlight").asLong());
+        out.printf("Arrival lag p99: %.1f ms%n", sessions.get("scheduleLagMillis").get("p99").asDouble());
+        out.printf("%-42s %8s %7s %8s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        json.get("endpoints").fields().forEachRemaining(entry -> {
+            JsonNode endpoint = entry.getValue();
+            JsonNode latency = endpoint.get("latencyMillis");
+            out.printf("%-42s %8d %7d %8.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                endpoint.get("requests").asLong(), endpoint.get("errors").asLong(),
+                endpoint.get("throughput").asDouble(), latency.get("p50").asDouble(), latency.get("p90").asDouble(),
+                latency.get("p99").asDouble(), latency.get("max").asDouble());
+        });
+    }
+
+    /**
+     * compare BASELINE CANDIDATE [--tolerance PERCENT]: prints per-endpoint changes and
+     * returns 1 if any endpoint's p99 grew by more than the tolerance (default 10%) or
+     * its error rate rose by more than one percentage point.
+     */
+    static int compare(String[] args, PrintStream out) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: compare BASELINE.json CANDIDATE.json [--tolerance PERCENT]");
+        }
+        double tolerance = args.length >= 5 && args[3].equals("--tolerance") ? Double.parseDouble(args[4]) : 10.0;
+        JsonNode baseline = OBJECT_MAPPER.readTree(Path.of(args[1]).toFile());
+        JsonNode candidate = OBJECT_MAPPER.readTree(Path.of(args[2]).toFile());
+
+        if (!baseline.get("options").equals(candidate.get("options"))) {
+            out.println("Warning: the runs used different options; compare with care");
+        }
+        out.printf("%-42s %10s %10s %8s %10s %10s %8s  %s%n",
+            "endpoint", "base p50", "new p50", "change", "base p99", "new p99", "change", "");
+        TreeSet<String> names = new TreeSet<>();
+        baseline.get("endpoints").fieldNames().forEachRemaining(names::add);
+        candidate.get("endpoints").fieldNames().forEachRemaining(names::add);
+
+        int regressions = 0;
+        for (String name : names) {
+            JsonNode before = baseline.get("endpoints").get(name);
+            JsonNode after = candidate.get("endpoints").get(name);
+            if (before == null || after == null) {
+                out.printf("%-42s %s%n", name, before == null ? "only in candidate" : "only in baseline");
+                continue;
+            }
+            double p50Before = before.get("latencyMillis").get("p50").asDouble();
+            double p50After = after.get("latencyMillis").get("p50").asDouble();
+            double p99Before = before.get("latencyMillis").get("p99").asDouble();
+            double p99After = after.get("latencyMillis").get("p99").asDouble();
+            double errorRateChange = after.get("errorRate").asDouble() - before.get("errorRate").asDouble();
+
+            boolean regressed = p99After > p99Before * (1 + tolerance / 100) || errorRateChange > 0.01;
+            if (regressed) {
+                regressions++;
+            }
+            out.printf("%-42s %10.1f %10.1f %7.1f%% %10.1f %10.1f %7.1f%%  %s%n", name,
+                p50Before, p50After, change(p50Before, p50After),
+                p99Before, p99After, change(p99Before, p99After), regressed ? "REGRESSION" : "");
+        }
+        out.printf("%d endpoint(s) regressed beyond %.0f%% p99 tolerance or +1pp error rate%n", regressions, tolerance);
+        return regressions > 0 ? 1 : 0;
+    }
+
+    private static double change(double before, double after) {
+        return before > 0 ? (after - before) / before * 100 : 0.0;
+    }
+}
@@ -69,7 +69,7 @@ public class DataInitializer implements CommandLineRunner {
             
             System.out.println("Sample categories created");
             
-            // Create sample food items
+            // Create sample food items; they start unrated, since the aggregates must match the ratings table
             FoodItem pizza = new FoodItem();
             pizza.setName("Margherita Pizza");
             pizza.setDescription("Classic pizza with tomato, mozzarella, and basil");
@@ -77,8 +77,6 @@ public class DataInitializer implements CommandLineRunner {
             pizza.setCategory(mains);
             pizza.setAvailable(true);
             pizza.setStockQuantity(50);
-            pizza.setAverageRating(4.5);
-            pizza.setRatingCount(25);
             foodItemRepository.save(pizza);
             
             FoodItem burger = new FoodItem();
@@ -88,8 +86,6 @@ public class DataInitializer implements CommandLineRunner {
             burger.setCategory(mains);
             burger.setAvailable(true);
             burger.setStockQuantity(30);
-            burger.setAverageRating(4.2);
-            burger.setRatingCount(18);
             foodItemRepository.save(burger);
             
             FoodItem salad = new FoodItem();
@@ -99,8 +95,6 @@ public class DataInitializer implements CommandLineRunner {
             salad.setCategory(starters);
             salad.setAvailable(true);
             salad.setStockQuantity(25);
-            salad.setAverageRating(4.0);
-            salad.setRatingCount(12);
             foodItemRepository.save(salad);
             
             FoodItem coke = new FoodItem();
@@ -110,8 +104,6 @@ public class DataInitializer implements CommandLineRunner {
             coke.setCategory(drinks);
             coke.setAvailable(true);
             coke.setStockQuantity(100);
-            coke.setAverageRating(4.3);
-            coke.setRatingCount(45);
             foodItemRepository.save(coke);
             
             FoodItem cake = new FoodItem();
@@ -121,8 +113,6 @@ public class DataInitializer implements CommandLineRunner {
             cake.setCategory(desserts);
             cake.setAvailable(true);
             cake.setStockQuantity(15);
-            cake.setAverageRating(4.7);
-            cake.setRatingCount(22);
             foodItemRepository.save(cake);
             
             System.out.println("Sample food items created");
@@ -0,0 +1,144 @@
+package com.example.backend.config;
+
+import com.example.backend.security.PasswordHashingService;
+import com.example.backend.security.TokenService;
+import com.example.backend.service.CatalogCache;
+import com.example.backend.service.ImageFileCache;
+import com.example.backend.service.ImageUploadService;
+import com.example.backend.service.OrderEventLog;
+import com.example.backend.service.OrderExportService;
+import com.example.backend.service.OrderStatusBroadcaster;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Additions to the Actuator metrics scraped from /actuator/prometheus: the controller
+ * method on every request timer, heap allocation, and the in-process caches and queues.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final KeyValue NO_HANDLER = KeyValue.of("handler", "none");
+
+    @Bean
+    public DefaultServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(handler(context.getCarrier()));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder applicationMeters(CatalogCache catalogCache, PasswordHashingService passwordHashingService,
+                                         TokenService tokenService, ImageUploadService imageUploadService,
+                                         ImageFileCache imageFileCache, OrderStatusBroadcaster orderStatusBroadcaster,
+                                         OrderEventLog orderEventLog, OrderExportService orderExportService,
+                                         DataSource dataSource) {
+        return registry -> {
+            com.sun.management.ThreadMXBean threads = threadMXBean();
+            if (threads != null) {
+                // Exact bytes allocated by all threads; rate() of it is the allocation rate
+                FunctionCounter.builder("jvm.memory.allocated", threads,
+                        com.sun.management.ThreadMXBean::getTotalThreadAllocatedBytes)
+                    .baseUnit("bytes")
+                    .description("Heap memory allocated since the JVM started")
+                    .register(registry);
+            }
+
+            // Meters hold their state weakly, so the state objects are the singleton beans themselves
+            FunctionCounter.builder("app.catalog.cache.requests", catalogCache, c -> stat(c.getStats(), "hits"))
+                .tag("result", "hit").register(registry);
+            FunctionCounter.builder("app.catalog.cache.requests", catalogCache, c -> stat(c.getStats(), "misses"))
+                .tag("result", "miss").register(registry);
+            FunctionCounter.builder("app.catalog.cache.rebuilds", catalogCache, c -> stat(c.getStats(), "rebuilds"))
+                .register(registry);
+
+            Gauge.builder("app.password.hashing.queue", passwordHashingService, p -> stat(p.getStats(), "queueDepth"))
+                .register(registry);
+            Gauge.builder("app.password.hashing.active", passwordHashingService, p -> stat(p.getStats(), "active"))
+                .register(registry);
+            FunctionCounter.builder("app.password.hashing.rejected", passwordHashingService,
+                    p -> stat(p.getStats(), "rejected"))
+                .register(registry);
+
+            Gauge.builder("app.auth.principal.cache.size", tokenService, TokenService::cacheSize)
+                .register(registry);
+
+            Gauge.builder("app.uploads.active", imageUploadService, u -> stat(u.getStats(), "activeStreams"))
+                .register(registry);
+            FunctionCounter.builder("app.uploads.stored.bytes", imageUploadService, u -> stat(u.getStats(), "storedBytes"))
+                .baseUnit("bytes").register(registry);
+            FunctionCounter.builder("app.uploads.rejected", imageUploadService, u -> stat(u.getStats(), "rejectedTooLarge"))
+                .tag("reason", "too_large").register(registry);
+            FunctionCounter.builder("app.uploads.rejected", imageUploadService, u -> stat(u.getStats(), "rejectedType"))
+                .tag("reason", "type").register(registry);
+            FunctionCounter.builder("app.uploads.rejected", imageUploadService, u -> stat(u.getStats(), "rejectedBusy"))
+                .tag("reason", "busy").register(registry);
+
+            FunctionCounter.builder("app.images.cache.requests", imageFileCache, c -> stat(c.getStats(), "hits"))
+                .tag("result", "hit").register(registry);
+            FunctionCounter.builder("app.images.cache.requests", imageFileCache, c -> stat(c.getStats(), "misses"))
+                .tag("result", "miss").register(registry);
+            Gauge.builder("app.images.cache.size", imageFileCache, c -> stat(c.getStats(), "bytes"))
+                .baseUnit("bytes").register(registry);
+
+            Gauge.builder("app.orders.events.subscribers", orderStatusBroadcaster, b -> stat(b.getStats(), "subscribers"))
+                .register(registry);
+            FunctionCounter.builder("app.orders.events.delivered", orderStatusBroadcaster,
+                    b -> stat(b.getStats(), "delivered"))
+                .register(registry);
+            FunctionCounter.builder("app.orders.events.dropped", orderStatusBroadcaster, b -> stat(b.getStats(), "dropped"))
+                .register(registry);
+            FunctionCounter.builder("app.orders.feed.catchups", orderEventLog, l -> stat(l.getStats(), "catchUps"))
+                .description("Feed reads that fell behind the event log and were answered from the database")
+                .register(registry);
+            Gauge.builder("app.orders.exports.active", orderExportService, e -> stat(e.getStats(), "active"))
+                .register(registry);
+            FunctionCounter.builder("app.orders.exports.rows", orderExportService, e -> stat(e.getStats(), "rows"))
+                .register(registry);
+
+            if (dataSource instanceof ConnectionLimitingDataSource limiter) {
+                Gauge.builder("app.datasource.connection.limit.waiting", limiter, l -> stat(l.getStats(), "waiting"))
+                    .register(registry);
+                FunctionCounter.builder("app.datasource.connection.limit.timeouts", limiter,
+                        l -> stat(l.getStats(), "timeouts"))
+                    .register(registry);
+            }
+        };
+    }
+
+    private static KeyValue handler(HttpServletRequest request) {
+        Object handler = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) : null;
+        if (handler instanceof HandlerMethod method) {
+            return KeyValue.of("handler", method.getBeanType().getSimpleName() + "#" + method.getMethod().getName());
+        }
+        return NO_HANDLER;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads;
+        }
+        return null;
+    }
+
+    private static double stat(Map<String, Object> stats, String key) {
+        return stats.get(key) instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.backend.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listens for JFR jdk.VirtualThreadPinned events while virtual threads are enabled and
+ * groups them by the application frame that held the monitor. Sites whose stack also
+ * contains JDBC frames are flagged: those hold a carrier thread for a whole query.
+ */
+@Component
+public class PinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.example.backend.";
+    private static final String[] JDBC_PACKAGES = {
+        "java.sql.", "javax.sql.", "com.mysql.", "org.h2.", "com.zaxxer.hikari.", "org.springframework.jdbc.",
+        "org.hibernate.engine.jdbc.", "org.hibernate.sql."
+    };
+    private static final int MAX_SITES = 200;
+    private static final int STACK_DEPTH = 15;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMillis;
+
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private volatile RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::record);
+            recording.startAsync();
+            stream = recording;
+            log.info("Watching for virtual threads pinned longer than {} ms", thresholdMillis);
+        } catch (RuntimeException e) {
+            log.warn("JFR is unavailable; virtual thread pinning will not be reported", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("virtualThreads", Threading.VIRTUAL.isActive(environment));
+        stats.put("monitoring", stream != null);
+        stats.put("thresholdMillis", thresholdMillis);
+        stats.put("pinnedEvents", events.sum());
+        List<Site> ranked = new ArrayList<>(sites.values());
+        ranked.sort(Comparator.comparingLong((Site s) -> s.count.sum()).reversed());
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (Site site : ranked.subList(0, Math.min(20, ranked.size()))) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("site", site.key);
+            entry.put("count", site.count.sum());
+            entry.put("maxMillis", site.maxNanos.get() / 1_000_000.0);
+            entry.put("heldAcrossJdbc", site.jdbc);
+            entry.put("stack", site.stack);
+            top.add(entry);
+        }
+        stats.put("sites", top);
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        events.increment();
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        String key = null;
+        boolean jdbc = false;
+        List<String> stack = new ArrayList<>();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            String line = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            // The connection limiter is where checkouts wait, not where the monitor is held
+            if (key == null && type.startsWith(APP_PACKAGE) && !type.equals(ConnectionLimitingDataSource.class.getName())) {
+                key = line;
+            }
+            jdbc |= isJdbc(type);
+            if (stack.size() < STACK_DEPTH) {
+                stack.add(line);
+            }
+        }
+        if (key == null) {
+            key = stack.isEmpty() ? "unknown" : stack.get(0);
+        }
+        if (!sites.containsKey(key) && sites.size() >= MAX_SITES) {
+            return;
+        }
+        boolean heldAcrossJdbc = jdbc;
+        String siteKey = key;
+        Site site = sites.computeIfAbsent(key, k -> {
+            if (heldAcrossJdbc) {
+                log.warn("Virtual thread pinned across a JDBC call at {}; replace synchronized with a lock", siteKey);
+            }
+            return new Site(k, heldAcrossJdbc, List.copyOf(stack));
+        });
+        site.count.increment();
+        site.maxNanos.accumulateAndGet(event.getDuration().toNanos(), Math::max);
+    }
+
+    private static boolean isJdbc(String type) {
+        for (String prefix : JDBC_PACKAGES) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Site {
+        final String key;
+        final boolean jdbc;
+        final List<String> stack;
+        final LongAdder count = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Site(String key, boolean jdbc, List<String> stack) {
+            this.key = key;
+            this.jdbc = jdbc;
+            this.stack = stack;
+        }
+    }
+}
@@ -1,19 +1,57 @@
 package com.example.backend.config;
 
+import com.example.backend.security.TokenAuthenticationFilter;
+import com.example.backend.security.TokenService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, TokenService tokenService) throws Exception {
         http.csrf(csrf -> csrf.disable())
-            .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+            .cors(Customizer.withDefaults())
+            .httpBasic(basic -> basic.disable())
+            .formLogin(form -> form.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class)
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers("/error").permitAll()
+                // Event streams end in an async dispatch of a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Scraped on the separate management port, which is not published with the API
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+                .requestMatchers("/api/auth/**", "/api/admin/create-first-admin").permitAll()
+                // Admin screens
+                .requestMatchers(HttpMethod.GET, "/api/food/admin", "/api/categories/admin", "/api/food/export",
+                    "/api/categories/export").hasRole("ADMIN")
+                .requestMatchers("/api/reports/**", "/api/upload/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/orders/summaries", "/api/orders/export",
+                    "/api/orders/feed", "/api/orders/events", "/api/coupons").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.PUT, "/api/orders/*/status").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/ratings/reconcile").hasRole("ADMIN")
+                // Public menu
+                .requestMatchers(HttpMethod.GET, "/api/food/**", "/api/categories/**", "/api/ratings/food/**",
+                    "/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.POST, "/api/coupons/validate").permitAll()
+                .requestMatchers("/api/food/**", "/api/categories/**", "/api/coupons/**").hasRole("ADMIN")
+                .anyRequest().authenticated());
         return http.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.example.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * spring.threads.virtual.enabled switches Tomcat, @Async and @Scheduled onto virtual
+ * threads. In that mode connection checkouts are limited to the Hikari pool size.
+ */
+@Configuration
+@EnableAsync
+public class VirtualThreadConfig {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor connectionLimitPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                boolean enabled = environment.getProperty("app.datasource.connection-limit.enabled", Boolean.class,
+                    Threading.VIRTUAL.isActive(environment));
+                if (enabled && bean instanceof HikariDataSource hikari) {
+                    // Hikari only applies its default pool size when the pool starts
+                    int poolSize = hikari.getMaximumPoolSize() > 0 ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+                    return new ConnectionLimitingDataSource(hikari, poolSize, hikari.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.UserProfile;
 import com.example.backend.entity.User;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.DashboardRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,6 +20,9 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
     @PostMapping("/create-first-admin")
     public ResponseEntity<?> createFirstAdmin(@RequestBody AdminRequest request) {
         // Only allow if no admin exists
@@ -31,7 +36,9 @@ public class AdminController {
         admin.setPassword(passwordEncoder.encode(request.getPassword()));
         admin.setRole(User.Role.ADMIN);
         
-        return ResponseEntity.ok(userRepository.save(admin));
+        User saved = userRepository.save(admin);
+        dashboardRollupService.userCreated(saved);
+        return ResponseEntity.ok(UserProfile.from(saved));
     }
     
     static class AdminRequest {
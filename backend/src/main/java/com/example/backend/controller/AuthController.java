@@ -1,16 +1,25 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.AuthResponse;
 import com.example.backend.entity.User;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.PasswordHashingService;
+import com.example.backend.security.TokenService;
+import com.example.backend.service.DashboardRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,40 +30,79 @@ public class AuthController {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
+    // The hashing pool only runs BCrypt; saving the new user waits on the database, so it runs here
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
     
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
         if (request.getEmail() == null || request.getEmail().trim().isEmpty() ||
             request.getPassword() == null || request.getPassword().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body("Email and password are required");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email and password are required"));
         }
         
         Optional<User> user = userRepository.findByEmail(request.getEmail());
-        if (user.isPresent() && passwordEncoder.matches(request.getPassword(), user.get().getPassword())) {
-            return ResponseEntity.ok(user.get());
+        if (user.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid credentials"));
+        }
+        try {
+            // Signing the token is in memory, so it can finish on the hashing thread
+            return passwordHashingService.matches(request.getPassword(), user.get().getPassword())
+                .<ResponseEntity<?>>thenApply(matches -> matches
+                    ? ResponseEntity.ok(authResponse(user.get()))
+                    : ResponseEntity.badRequest().body("Invalid credentials"));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
         }
-        return ResponseEntity.badRequest().body("Invalid credentials");
     }
     
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request) {
         if (request.getEmail() == null || request.getEmail().trim().isEmpty() ||
             request.getPassword() == null || request.getPassword().trim().isEmpty() ||
             request.getName() == null || request.getName().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body("All fields are required");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("All fields are required"));
         }
         
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest().body("Email already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email already exists"));
         }
         
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setName(request.getName());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        
-        return ResponseEntity.ok(userRepository.save(user));
+        try {
+            return passwordHashingService.encode(request.getPassword()).<ResponseEntity<?>>thenApplyAsync(hash -> {
+                User user = new User();
+                user.setEmail(request.getEmail());
+                user.setName(request.getName());
+                user.setPassword(hash);
+                
+                User saved = userRepository.save(user);
+                dashboardRollupService.userCreated(saved);
+                return ResponseEntity.ok(authResponse(saved));
+            }, taskExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
+    
+    // The hashing queue is full; tell the client when it is likely to have drained
+    private ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.retryAfterSeconds()))
+            .body("Too many sign-in attempts right now, please retry shortly");
+    }
+    
+    private AuthResponse authResponse(User user) {
+        TokenService.IssuedToken token = tokenService.issue(user);
+        return new AuthResponse(user, token.token(), token.expiresAt());
     }
     
     static class LoginRequest {
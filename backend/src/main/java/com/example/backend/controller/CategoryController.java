@@ -1,12 +1,24 @@
 package com.example.backend.controller;
 
 import com.example.backend.entity.Category;
+import com.example.backend.dto.ImportResult;
 import com.example.backend.dto.CategoryRequest;
 import com.example.backend.repository.CategoryRepository;
+import com.example.backend.service.CatalogCache;
+import com.example.backend.service.ImageGarbageCollector;
+import com.example.backend.service.MenuTransferService;
+import com.example.backend.service.TransferFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +30,23 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+    
+    @Autowired
+    private MenuTransferService menuTransferService;
+    
     @GetMapping
     public List<Category> getAllCategories() {
-        return categoryRepository.findByActiveTrue();
+        return catalogCache.getActiveCategories();
     }
     
     @GetMapping("/admin")
     public List<Category> getAllCategoriesForAdmin() {
-        return categoryRepository.findAll();
+        return catalogCache.getAllCategories();
     }
     
     @PostMapping
@@ -36,25 +57,62 @@ public class CategoryController {
             category.setDescription(request.getDescription());
             category.setImageUrl(request.getImageUrl());
             category.setActive(true);
-            return ResponseEntity.ok(categoryRepository.save(category));
+            Category saved = categoryRepository.save(category);
+            catalogCache.categorySaved(saved);
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error creating category: " + e.getMessage());
         }
     }
     
+    // Bulk load as CSV (header row first) or one JSON object per line; the body is read as it arrives
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importCategories(HttpServletRequest request) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        TransferFormat format = TransferFormat.of(request.getContentType());
+        ImportResult result = menuTransferService.importCategories(request.getReader(), format);
+        return ResponseEntity.ok(result);
+    }
+    
+    // format is csv or ndjson; every category is written as it is read, in id order
+    @GetMapping("/export")
+    public void exportCategories(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response)
+            throws IOException {
+        TransferFormat exportFormat;
+        try {
+            exportFormat = TransferFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.setContentType(exportFormat.mediaType + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"categories." + exportFormat.extension + "\"");
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        menuTransferService.exportCategories(writer, exportFormat);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<?> updateCategory(@PathVariable Long id, @Valid @RequestBody CategoryRequest request) {
         try {
             Optional<Category> existingCategory = categoryRepository.findById(id);
             if (existingCategory.isPresent()) {
                 Category category = existingCategory.get();
+                String previousImageUrl = category.getImageUrl();
                 category.setName(request.getName());
                 category.setDescription(request.getDescription());
                 category.setImageUrl(request.getImageUrl());
                 if (request.getActive() != null) {
                     category.setActive(request.getActive());
                 }
-                return ResponseEntity.ok(categoryRepository.save(category));
+                Category saved = categoryRepository.save(category);
+                catalogCache.categorySaved(saved);
+                if (previousImageUrl != null && !previousImageUrl.equals(saved.getImageUrl())) {
+                    imageGarbageCollector.release(previousImageUrl);
+                }
+                return ResponseEntity.ok(saved);
             }
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -68,6 +126,8 @@ public class CategoryController {
             Optional<Category> category = categoryRepository.findById(id);
             if (category.isPresent()) {
                 categoryRepository.deleteById(id);
+                catalogCache.categoryDeleted(id);
+                imageGarbageCollector.release(category.get().getImageUrl());
                 return ResponseEntity.ok().build();
             }
             return ResponseEntity.notFound().build();
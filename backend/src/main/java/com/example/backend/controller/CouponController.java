@@ -2,10 +2,10 @@ package com.example.backend.controller;
 
 import com.example.backend.entity.Coupon;
 import com.example.backend.repository.CouponRepository;
+import com.example.backend.service.CouponService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +17,9 @@ public class CouponController {
     @Autowired
     private CouponRepository couponRepository;
     
+    @Autowired
+    private CouponService couponService;
+    
     @GetMapping
     public List<Coupon> getAllCoupons() {
         return couponRepository.findByActiveTrue();
@@ -24,40 +27,30 @@ public class CouponController {
     
     @PostMapping("/validate")
     public ResponseEntity<?> validateCoupon(@RequestBody CouponValidationRequest request) {
-        Optional<Coupon> coupon = couponRepository.findByCodeAndActiveTrue(request.getCode());
-        
-        if (coupon.isEmpty()) {
-            return ResponseEntity.badRequest().body("Invalid coupon code");
-        }
-        
-        Coupon c = coupon.get();
-        LocalDateTime now = LocalDateTime.now();
-        
-        if (c.getValidFrom() != null && now.isBefore(c.getValidFrom())) {
-            return ResponseEntity.badRequest().body("Coupon not yet valid");
+        try {
+            return ResponseEntity.ok(couponService.validate(request.getCode()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-        
-        if (c.getValidTo() != null && now.isAfter(c.getValidTo())) {
-            return ResponseEntity.badRequest().body("Coupon expired");
-        }
-        
-        if (c.getUsageLimit() != null && c.getUsedCount() >= c.getUsageLimit()) {
-            return ResponseEntity.badRequest().body("Coupon usage limit exceeded");
-        }
-        
-        return ResponseEntity.ok(c);
     }
     
     @PostMapping
     public Coupon addCoupon(@RequestBody Coupon coupon) {
-        return couponRepository.save(coupon);
+        Coupon saved = couponRepository.save(coupon);
+        couponService.couponSaved();
+        return saved;
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<Coupon> updateCoupon(@PathVariable Long id, @RequestBody Coupon coupon) {
-        if (couponRepository.existsById(id)) {
+        Optional<Coupon> existing = couponRepository.findById(id);
+        if (existing.isPresent()) {
             coupon.setId(id);
-            return ResponseEntity.ok(couponRepository.save(coupon));
+            // Usage is tracked by redemptions, not by whatever count the client sends back
+            coupon.setUsedCount(existing.get().getUsedCount());
+            Coupon saved = couponRepository.save(coupon);
+            couponService.couponSaved();
+            return ResponseEntity.ok(saved);
         }
         return ResponseEntity.notFound().build();
     }
@@ -68,4 +61,4 @@ public class CouponController {
         public String getCode() { return code; }
         public void setCode(String code) { this.code = code; }
     }
-}
\ No newline at end of file
+}
@@ -1,49 +1,134 @@
 package com.example.backend.controller;
 
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.ImageUploadService;
+import com.example.backend.service.ImageUploadService.UploadRejectedException;
+import com.example.backend.service.ImageUploadService.UploadStatus;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.net.URI;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/upload")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {HttpHeaders.LOCATION, FileUploadController.UPLOAD_OFFSET})
 public class FileUploadController {
-    
-    private final String uploadDir = "uploads/";
-    
-    @PostMapping("/image")
+
+    static final String UPLOAD_OFFSET = "Upload-Offset";
+    static final String UPLOAD_LENGTH = "Upload-Length";
+
+    @Autowired
+    private ImageUploadService imageUploadService;
+
+    // Older app builds send a multipart form; Spring has already spooled the part to disk
+    @PostMapping(value = "/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> uploadImage(@RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("File is empty");
+        }
         try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("File is empty");
-            }
-            
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String filename = UUID.randomUUID().toString() + extension;
-            
-            // Save file
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath);
-            
-            // Return file URL
-            String fileUrl = "/uploads/" + filename;
-            return ResponseEntity.ok().body("{\"url\":\"" + fileUrl + "\"}");
-            
+            return ResponseEntity.ok(url(imageUploadService.store(file.getInputStream(), file.getSize()).url()));
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error uploading file: " + e.getMessage());
+        }
+    }
+
+    // The image itself as the request body, written to disk as it arrives
+    @PostMapping(value = "/image", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> uploadImageBody(HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(url(imageUploadService.store(request.getInputStream(),
+                request.getContentLengthLong()).url()));
+        } catch (UploadRejectedException e) {
+            return rejected(e);
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("Error uploading file: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/sessions")
+    public ResponseEntity<?> createSession(@AuthenticationPrincipal UserPrincipal principal,
+                                           @RequestHeader(UPLOAD_LENGTH) long size) {
+        try {
+            UploadStatus status = imageUploadService.createSession(principal.id(), size);
+            return ResponseEntity.created(URI.create("/api/upload/sessions/" + status.id()))
+                .header(UPLOAD_OFFSET, String.valueOf(status.offset()))
+                .body(status);
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Could not start upload: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/sessions/{id}")
+    public ResponseEntity<?> getSession(@AuthenticationPrincipal UserPrincipal principal, @PathVariable String id) {
+        try {
+            return withOffset(imageUploadService.getSession(principal.id(), id));
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        }
+    }
+
+    @PatchMapping(value = "/sessions/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> appendChunk(@AuthenticationPrincipal UserPrincipal principal, @PathVariable String id,
+                                         @RequestHeader(UPLOAD_OFFSET) long offset, HttpServletRequest request) {
+        try {
+            return withOffset(imageUploadService.appendChunk(principal.id(), id, offset, request.getInputStream(),
+                request.getContentLengthLong()));
+        } catch (UploadRejectedException e) {
+            if (e.getStatus() == HttpStatus.CONFLICT) {
+                // Tell the client where to resume from
+                try {
+                    UploadStatus status = imageUploadService.getSession(principal.id(), id);
+                    return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .header(UPLOAD_OFFSET, String.valueOf(status.offset()))
+                        .body(e.getMessage());
+                } catch (UploadRejectedException gone) {
+                    return rejected(gone);
+                }
+            }
+            return rejected(e);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error uploading chunk: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<?> cancelSession(@AuthenticationPrincipal UserPrincipal principal, @PathVariable String id) {
+        try {
+            imageUploadService.cancelSession(principal.id(), id);
+            return ResponseEntity.noContent().build();
+        } catch (UploadRejectedException e) {
+            return rejected(e);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Could not cancel upload: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, String> url(String url) {
+        return Map.of("url", url);
+    }
+
+    private static ResponseEntity<UploadStatus> withOffset(UploadStatus status) {
+        return ResponseEntity.ok().header(UPLOAD_OFFSET, String.valueOf(status.offset())).body(status);
+    }
+
+    private static ResponseEntity<?> rejected(UploadRejectedException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(e.getStatus());
+        if (e.getStatus() == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(e.getMessage());
+    }
+}
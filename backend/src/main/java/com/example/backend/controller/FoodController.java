@@ -2,13 +2,26 @@ package com.example.backend.controller;
 
 import com.example.backend.entity.FoodItem;
 import com.example.backend.entity.Category;
+import com.example.backend.dto.ImportResult;
 import com.example.backend.dto.FoodItemRequest;
 import com.example.backend.repository.FoodItemRepository;
 import com.example.backend.repository.CategoryRepository;
+import com.example.backend.service.CatalogCache;
+import com.example.backend.service.ImageGarbageCollector;
+import com.example.backend.service.MenuTransferService;
+import com.example.backend.service.TransferFormat;
+import com.example.backend.service.StockReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,30 +36,41 @@ public class FoodController {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ImageGarbageCollector imageGarbageCollector;
+    
+    @Autowired
+    private MenuTransferService menuTransferService;
+    
+    @Autowired
+    private StockReservationService stockReservationService;
+    
     @GetMapping
     public List<FoodItem> getAllFood() {
-        return foodItemRepository.findByAvailableTrue();
+        return catalogCache.getAvailableItems();
     }
     
     @GetMapping("/admin")
     public List<FoodItem> getAllFoodForAdmin() {
-        return foodItemRepository.findAll();
+        return catalogCache.getAllItems();
     }
     
     @GetMapping("/search")
     public List<FoodItem> searchFood(@RequestParam String query) {
-        return foodItemRepository.findByNameContainingIgnoreCaseAndAvailableTrue(query);
+        return catalogCache.search(query);
     }
     
     @GetMapping("/category/{categoryId}")
     public List<FoodItem> getFoodByCategory(@PathVariable Long categoryId) {
-        Category category = categoryRepository.findById(categoryId).orElse(null);
-        return category != null ? foodItemRepository.findByCategory(category) : List.of();
+        return catalogCache.getItemsByCategory(categoryId);
     }
     
     @GetMapping("/top-rated")
     public List<FoodItem> getTopRatedFood() {
-        return foodItemRepository.findTopRatedItems();
+        return catalogCache.getTopRatedItems();
     }
     
     @PostMapping
@@ -64,12 +88,43 @@ public class FoodController {
             foodItem.setStockQuantity(request.getStockQuantity());
             foodItem.setAvailable(request.getAvailable());
             
-            return ResponseEntity.ok(foodItemRepository.save(foodItem));
+            FoodItem saved = foodItemRepository.save(foodItem);
+            catalogCache.foodItemSaved(saved);
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error creating food item: " + e.getMessage());
         }
     }
     
+    // Bulk load as CSV (header row first) or one JSON object per line; the body is read as it arrives
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importFood(HttpServletRequest request) throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        TransferFormat format = TransferFormat.of(request.getContentType());
+        ImportResult result = menuTransferService.importFoodItems(request.getReader(), format);
+        return ResponseEntity.ok(result);
+    }
+    
+    // format is csv or ndjson; every food item is written as it is read, in id order
+    @GetMapping("/export")
+    public void exportFood(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response)
+            throws IOException {
+        TransferFormat exportFormat;
+        try {
+            exportFormat = TransferFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.setContentType(exportFormat.mediaType + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"food-items." + exportFormat.extension + "\"");
+        Writer writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        menuTransferService.exportFoodItems(writer, exportFormat);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<?> updateFood(@PathVariable Long id, @Valid @RequestBody FoodItemRequest request) {
         try {
@@ -79,6 +134,7 @@ public class FoodController {
                     .orElseThrow(() -> new RuntimeException("Category not found"));
                 
                 FoodItem foodItem = existingFood.get();
+                String previousImageUrl = foodItem.getImageUrl();
                 foodItem.setName(request.getName());
                 foodItem.setDescription(request.getDescription());
                 foodItem.setPrice(request.getPrice());
@@ -87,7 +143,13 @@ public class FoodController {
                 foodItem.setStockQuantity(request.getStockQuantity());
                 foodItem.setAvailable(request.getAvailable());
                 
-                return ResponseEntity.ok(foodItemRepository.save(foodItem));
+                FoodItem saved = foodItemRepository.save(foodItem);
+                catalogCache.foodItemSaved(saved);
+                stockReservationService.invalidate(id);
+                if (previousImageUrl != null && !previousImageUrl.equals(saved.getImageUrl())) {
+                    imageGarbageCollector.release(previousImageUrl);
+                }
+                return ResponseEntity.ok(saved);
             }
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -97,8 +159,12 @@ public class FoodController {
     
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteFood(@PathVariable Long id) {
-        if (foodItemRepository.existsById(id)) {
+        Optional<FoodItem> foodItem = foodItemRepository.findById(id);
+        if (foodItem.isPresent()) {
             foodItemRepository.deleteById(id);
+            catalogCache.foodItemDeleted(id);
+            stockReservationService.invalidate(id);
+            imageGarbageCollector.release(foodItem.get().getImageUrl());
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
@@ -0,0 +1,166 @@
+package com.example.backend.controller;
+
+import com.example.backend.service.ImageFileCache;
+import com.example.backend.service.ImageVariantService;
+import com.example.backend.service.ImageVariantService.ResolvedImage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves uploaded images. Stored files are named by their content and never change, so
+ * responses carry the name as a strong ETag and may be cached for a year, except when
+ * the original stands in for a variant that is still being generated. Small images
+ * come from an in-memory cache; larger ones are handed to Tomcat's sendfile so the
+ * kernel copies them to the socket.
+ */
+@RestController
+@RequestMapping("/uploads")
+@CrossOrigin(origins = "*", exposedHeaders = {HttpHeaders.ETAG, HttpHeaders.CONTENT_RANGE})
+public class ImageController {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String PROVISIONAL = "public, max-age=60";
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    // Request attributes of Tomcat's NIO connector (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageFileCache imageFileCache;
+
+    @Value("${app.images.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes;
+
+    // w is the width the image is displayed at in device pixels; the closest variant is sent
+    @GetMapping("/{filename:.+}")
+    public void getImage(@PathVariable String filename, @RequestParam(name = "w", required = false) Integer width,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ResolvedImage image = imageVariantService.resolve(filename, width);
+        if (image == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String name = image.file().getFileName().toString();
+        String etag = "\"" + name.substring(0, name.lastIndexOf('.')) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.provisional() ? PROVISIONAL : IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(ImageVariantService.typeOf(image.file()).mediaType);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = image.size();
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // A range is only valid against the representation the client already holds part of
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher matcher = SINGLE_RANGE.matcher(range.trim());
+            // Several ranges in one request are answered with the whole file
+            long[] bounds = matcher.matches() ? bounds(matcher, size) : null;
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                if (start > end) {
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+
+        byte[] cached = imageFileCache.get(image.file(), size);
+        if (cached != null) {
+            response.getOutputStream().write(cached, (int) start, (int) length);
+        } else if (length >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file itself once the request returns
+            request.setAttribute(SENDFILE_FILENAME, image.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+        } else {
+            transfer(image.file(), start, length, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Returns the first and last byte of a single range, with the last clamped to the file,
+     * or null if the range names no position or a position beyond Long.MAX_VALUE. Such a
+     * Range header is invalid and the whole file is served instead.
+     */
+    private static long[] bounds(Matcher matcher, long size) {
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+        if (first.isEmpty() && last.isEmpty()) {
+            return null;
+        }
+        try {
+            if (first.isEmpty()) {
+                return new long[] {Math.max(0, size - Long.parseLong(last)), size - 1};
+            }
+            long end = last.isEmpty() ? size - 1 : Math.min(size - 1, Long.parseLong(last));
+            return new long[] {Long.parseLong(first), end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void transfer(Path file, long start, long length, OutputStream output) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,80 +1,289 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.OrderDetails;
+import com.example.backend.dto.OrderEventFeed;
+import com.example.backend.dto.OrderPage;
+import com.example.backend.dto.OrderStatusEvent;
+import com.example.backend.dto.OrderSummary;
 import com.example.backend.entity.Order;
 import com.example.backend.entity.OrderItem;
-import com.example.backend.entity.User;
 import com.example.backend.repository.OrderRepository;
-import com.example.backend.repository.UserRepository;
-import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.OrderEventLog;
+import com.example.backend.service.OrderExportService;
+import com.example.backend.service.OrderExportService.ExportBusyException;
+import com.example.backend.service.OrderService;
+import com.example.backend.service.OrderStatusBroadcaster;
+import com.example.backend.service.TransferFormat;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import java.math.BigDecimal;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
 @CrossOrigin(origins = "*")
 public class OrderController {
     
+    private static final int STREAM_RETRY_AFTER_SECONDS = 30;
+    
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private OrderService orderService;
+    
+    @Autowired
+    private OrderStatusBroadcaster orderStatusBroadcaster;
     
     @Autowired
-    private FoodItemRepository foodItemRepository;
+    private OrderEventLog orderEventLog;
+    
+    @Autowired
+    private OrderExportService orderExportService;
+    
+    @Value("${app.orders.page-size.default:20}")
+    private int defaultPageSize;
+    
+    @Value("${app.orders.page-size.max:100}")
+    private int maxPageSize;
+    
+    @Value("${app.orders.feed.page-size.default:100}")
+    private int defaultFeedPageSize;
+    
+    @Value("${app.orders.feed.page-size.max:500}")
+    private int maxFeedPageSize;
     
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest request) {
-        User user = userRepository.findById(request.getUserId()).orElse(null);
-        if (user == null) return ResponseEntity.badRequest().build();
-        
-        Order order = new Order();
-        order.setUser(user);
+    public ResponseEntity<?> createOrder(@AuthenticationPrincipal UserPrincipal principal,
+                                         @RequestBody OrderRequest request) {
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            return ResponseEntity.badRequest().body("Items are required");
+        }
         
-        BigDecimal total = BigDecimal.ZERO;
+        // Client-sent prices are ignored; lines are priced from the current menu
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
         for (OrderItem item : request.getItems()) {
-            item.setOrder(order);
-            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            if (item.getFoodItem() == null || item.getFoodItem().getId() == null
+                    || item.getQuantity() == null || item.getQuantity() < 1) {
+                return ResponseEntity.badRequest().body("Each item needs a food item and a positive quantity");
+            }
+            quantities.merge(item.getFoodItem().getId(), item.getQuantity(), Integer::sum);
         }
         
-        order.setItems(request.getItems());
-        order.setTotalAmount(total);
-        
-        return ResponseEntity.ok(orderRepository.save(order));
+        try {
+            Order saved = orderService.placeOrder(principal.id(), quantities, request.getOrderType(),
+                request.getPaymentMethod(), request.getDeliveryAddress(), request.getNotes(), request.getCouponCode());
+            return ResponseEntity.ok(orderService.findDetailsById(saved.getId()).orElseThrow());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Status changes of the user's orders as they happen; the history itself is read a page at a time
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserOrderEvents(@AuthenticationPrincipal UserPrincipal principal,
+                                                            @PathVariable Long userId) {
+        if (!principal.canAccessUser(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return stream(orderStatusBroadcaster.subscribeUser(userId));
+    }
+    
+    // Order events after cursor for kitchen screens; without one, starts from now
+    @GetMapping("/feed")
+    public ResponseEntity<?> getOrderFeed(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        OrderEventFeed.Cursor after;
+        try {
+            after = OrderEventFeed.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, maxFeedPageSize)) : defaultFeedPageSize;
+        return ResponseEntity.ok(orderEventLog.read(after, pageSize));
+    }
+    
+    // The same events pushed as they happen; reconnecting browsers resume from Last-Event-ID
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderFeed(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        OrderEventFeed.Cursor after;
+        try {
+            after = OrderEventFeed.decodeCursor(cursor != null ? cursor : lastEventId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stream(orderStatusBroadcaster.subscribeFeed(principal.id(), after));
+    }
+    
+    // Order lines for accounting, oldest first, written as they are read; gzip=true sends a .gz file
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) Order.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        TransferFormat exportFormat;
+        try {
+            exportFormat = TransferFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        String filename = "orders." + exportFormat.extension + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.mediaType + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        try {
+            orderExportService.export(response.getOutputStream(), exportFormat, gzip, status, from, to);
+        } catch (ExportBusyException e) {
+            // Nothing has been written yet, so the headers above can still be replaced
+            response.reset();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(STREAM_RETRY_AFTER_SECONDS));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+    
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getOrderSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Order.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return findOrderPage(null, cursor, size, status, from, to);
+    }
+    
+    @GetMapping("/user/{userId}/summaries")
+    public ResponseEntity<?> getUserOrderSummaries(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Order.Status status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!principal.canAccessUser(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return findOrderPage(userId, cursor, size, status, from, to);
     }
     
-    @GetMapping("/user/{userId}")
-    public List<Order> getUserOrders(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElse(null);
-        return user != null ? orderRepository.findByUserOrderByCreatedAtDesc(user) : List.of();
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderDetails> getOrder(@AuthenticationPrincipal UserPrincipal principal,
+                                                 @PathVariable Long id) {
+        OrderDetails order = orderService.findDetailsById(id).orElse(null);
+        if (order == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!principal.canAccessUser(order.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(order);
     }
     
-    @GetMapping
-    public List<Order> getAllOrders() {
-        return orderRepository.findAllByOrderByCreatedAtDesc();
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderEvents(@AuthenticationPrincipal UserPrincipal principal,
+                                                        @PathVariable Long id) {
+        OrderStatusEvent order = orderRepository.findStatusById(id).orElse(null);
+        if (order == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!principal.canAccessUser(order.getUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // The status sent first is read again once subscribed; this one may predate a change pushed to nobody
+        return stream(orderStatusBroadcaster.subscribeOrder(order.getUserId(), id,
+            () -> orderRepository.findStatusById(id).orElse(null)));
     }
     
     @PutMapping("/{id}/status")
-    public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestBody StatusRequest request) {
-        Order order = orderRepository.findById(id).orElse(null);
-        if (order != null) {
-            order.setStatus(request.getStatus());
-            return ResponseEntity.ok(orderRepository.save(order));
+    public ResponseEntity<?> updateOrderStatus(@PathVariable Long id, @RequestBody StatusRequest request) {
+        if (request.getStatus() == null) {
+            return ResponseEntity.badRequest().body("Status is required");
+        }
+        try {
+            Order order = orderService.updateStatus(id, request.getStatus());
+            if (order != null) {
+                return ResponseEntity.ok(orderService.findDetailsById(id).orElseThrow());
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+    
+    private ResponseEntity<SseEmitter> stream(SseEmitter emitter) {
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(STREAM_RETRY_AFTER_SECONDS)).build();
+        }
+        // Keeps buffering proxies such as nginx from holding events back
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+    
+    private ResponseEntity<?> findOrderPage(Long userId, String cursor, Integer size, Order.Status status,
+                                            LocalDateTime from, LocalDateTime to) {
+        OrderPage.Cursor after;
+        try {
+            after = OrderPage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        
+        int pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : defaultPageSize;
+        
+        // Fetch one extra row to learn whether another page exists
+        List<OrderSummary> rows = orderRepository.findSummaries(userId, status, from, to,
+            after != null ? after.createdAt() : null, after != null ? after.id() : null,
+            Limit.of(pageSize + 1));
+        
+        if (rows.size() > pageSize) {
+            List<OrderSummary> page = rows.subList(0, pageSize);
+            return ResponseEntity.ok(new OrderPage(page, OrderPage.encodeCursor(page.get(pageSize - 1))));
         }
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(new OrderPage(rows, null));
     }
     
     static class OrderRequest {
-        private Long userId;
         private List<OrderItem> items;
+        private Order.OrderType orderType;
+        private Order.PaymentMethod paymentMethod;
+        private String deliveryAddress;
+        private String notes;
+        private String couponCode;
         
-        public Long getUserId() { return userId; }
-        public void setUserId(Long userId) { this.userId = userId; }
         public List<OrderItem> getItems() { return items; }
         public void setItems(List<OrderItem> items) { this.items = items; }
+        public Order.OrderType getOrderType() { return orderType; }
+        public void setOrderType(Order.OrderType orderType) { this.orderType = orderType; }
+        public Order.PaymentMethod getPaymentMethod() { return paymentMethod; }
+        public void setPaymentMethod(Order.PaymentMethod paymentMethod) { this.paymentMethod = paymentMethod; }
+        public String getDeliveryAddress() { return deliveryAddress; }
+        public void setDeliveryAddress(String deliveryAddress) { this.deliveryAddress = deliveryAddress; }
+        public String getNotes() { return notes; }
+        public void setNotes(String notes) { this.notes = notes; }
+        public String getCouponCode() { return couponCode; }
+        public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
     }
     
     static class StatusRequest {
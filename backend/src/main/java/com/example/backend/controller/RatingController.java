@@ -1,13 +1,16 @@
 package com.example.backend.controller;
 
-import com.example.backend.entity.Rating;
+import com.example.backend.dto.RatingEntry;
 import com.example.backend.entity.User;
 import com.example.backend.entity.FoodItem;
 import com.example.backend.repository.RatingRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.security.UserPrincipal;
+import com.example.backend.service.RatingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -25,55 +28,43 @@ public class RatingController {
     @Autowired
     private FoodItemRepository foodItemRepository;
     
+    @Autowired
+    private RatingService ratingService;
+    
     @GetMapping("/food/{foodItemId}")
-    public List<Rating> getFoodRatings(@PathVariable Long foodItemId) {
-        FoodItem foodItem = foodItemRepository.findById(foodItemId).orElse(null);
-        return foodItem != null ? ratingRepository.findByFoodItem(foodItem) : List.of();
+    public List<RatingEntry> getFoodRatings(@PathVariable Long foodItemId) {
+        return ratingRepository.findEntriesByFoodItemId(foodItemId);
     }
     
     @PostMapping
-    public ResponseEntity<Rating> addRating(@RequestBody RatingRequest request) {
-        User user = userRepository.findById(request.getUserId()).orElse(null);
-        FoodItem foodItem = foodItemRepository.findById(request.getFoodItemId()).orElse(null);
+    public ResponseEntity<RatingEntry> addRating(@AuthenticationPrincipal UserPrincipal principal,
+                                                 @RequestBody RatingRequest request) {
+        User user = userRepository.getReferenceById(principal.id());
+        FoodItem foodItem = request.getFoodItemId() != null
+            ? foodItemRepository.findById(request.getFoodItemId()).orElse(null) : null;
         
-        if (user == null || foodItem == null) {
+        if (foodItem == null) {
             return ResponseEntity.badRequest().build();
         }
         
-        Rating rating = ratingRepository.findByUserAndFoodItem(user, foodItem)
-            .orElse(new Rating());
-        
-        rating.setUser(user);
-        rating.setFoodItem(foodItem);
-        rating.setRating(request.getRating());
-        rating.setComment(request.getComment());
-        
-        Rating saved = ratingRepository.save(rating);
-        
-        // Update food item average rating
-        updateFoodItemRating(foodItem);
+        if (request.getRating() == null || request.getRating() < 1 || request.getRating() > 5) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        return ResponseEntity.ok(saved);
+        return ResponseEntity.ok(RatingEntry.from(
+            ratingService.rate(user, foodItem, request.getRating(), request.getComment())));
     }
     
-    private void updateFoodItemRating(FoodItem foodItem) {
-        Double avgRating = ratingRepository.getAverageRatingByFoodItem(foodItem);
-        Integer ratingCount = ratingRepository.getRatingCountByFoodItem(foodItem);
-        
-        foodItem.setAverageRating(avgRating != null ? avgRating : 0.0);
-        foodItem.setRatingCount(ratingCount != null ? ratingCount : 0);
-        
-        foodItemRepository.save(foodItem);
+    @PostMapping("/reconcile")
+    public List<Long> reconcileRatings() {
+        return ratingService.reconcile();
     }
     
     static class RatingRequest {
-        private Long userId;
         private Long foodItemId;
         private Integer rating;
         private String comment;
         
-        public Long getUserId() { return userId; }
-        public void setUserId(Long userId) { this.userId = userId; }
         public Long getFoodItemId() { return foodItemId; }
         public void setFoodItemId(Long foodItemId) { this.foodItemId = foodItemId; }
         public Integer getRating() { return rating; }
@@ -1,13 +1,28 @@
 package com.example.backend.controller;
 
-import com.example.backend.repository.OrderRepository;
-import com.example.backend.repository.UserRepository;
-import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.config.ConnectionLimitingDataSource;
+import com.example.backend.config.PinningMonitor;
+import com.example.backend.security.PasswordHashingService;
+import com.example.backend.service.CatalogCache;
+import com.example.backend.service.DashboardRollupService;
+import com.example.backend.service.ImageFileCache;
+import com.example.backend.service.ImageGarbageCollector;
+import com.example.backend.service.ImageUploadService;
+import com.example.backend.service.ImageVariantService;
+import com.example.backend.service.OrderEventLog;
+import com.example.backend.service.OrderExportService;
+import com.example.backend.service.OrderStatusBroadcaster;
+import com.example.backend.service.SalesAnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.time.LocalDateTime;
+import javax.sql.DataSource;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,31 +30,145 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class ReportsController {
     
+    private static final int MAX_RANGE_DAYS = 366;
+    
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private PinningMonitor pinningMonitor;
+    
     @Autowired
-    private OrderRepository orderRepository;
+    private ImageUploadService imageUploadService;
     
     @Autowired
-    private UserRepository userRepository;
+    private ImageVariantService imageVariantService;
     
     @Autowired
-    private FoodItemRepository foodItemRepository;
+    private ImageGarbageCollector imageGarbageCollector;
+    
+    @Autowired
+    private ImageFileCache imageFileCache;
+    
+    @Autowired
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+    
+    @Autowired
+    private OrderEventLog orderEventLog;
+    
+    @Autowired
+    private OrderExportService orderExportService;
+    
+    @Autowired
+    private DataSource dataSource;
     
     @GetMapping("/dashboard")
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
+        Map<String, Object> totals = dashboardRollupService.getTotals();
+        Map<String, Object> today = dashboardRollupService.getDay(LocalDate.now());
         
-        stats.put("totalOrders", orderRepository.count());
-        stats.put("totalUsers", userRepository.count());
-        stats.put("totalFoodItems", foodItemRepository.count());
-        stats.put("todayOrders", getTodayOrdersCount());
+        stats.put("totalOrders", totals.get("orders"));
+        stats.put("totalUsers", totals.get("newUsers"));
+        stats.put("totalFoodItems", catalogCache.getAllItems().size());
+        stats.put("todayOrders", today.get("orders"));
+        stats.put("todayRevenue", today.get("revenue"));
+        stats.put("todayNewUsers", today.get("newUsers"));
+        stats.put("todayCancellations", today.get("cancellations"));
         
         return stats;
     }
     
-    private long getTodayOrdersCount() {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        // This would need a custom query in OrderRepository
-        return orderRepository.count(); // Simplified for now
+    @GetMapping("/daily")
+    public ResponseEntity<?> getDailyRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.badRequest().body("Date range must be between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        return ResponseEntity.ok(dashboardRollupService.getDays(from, to));
+    }
+    
+    @GetMapping("/hourly")
+    public List<Map<String, Object>> getHourlyRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return dashboardRollupService.getHours(date != null ? date : LocalDate.now());
+    }
+    
+    @GetMapping("/sales")
+    public ResponseEntity<?> getSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") SalesAnalyticsService.Granularity granularity,
+            @RequestParam(defaultValue = "NONE") SalesAnalyticsService.GroupBy groupBy) {
+        try {
+            return ResponseEntity.ok(salesAnalyticsService.query(from, to, granularity, groupBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups() {
+        try {
+            dashboardRollupService.rebuild();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+        return ResponseEntity.ok(dashboardRollupService.getTotals());
+    }
+    
+    @GetMapping("/catalog-cache")
+    public Map<String, Object> getCatalogCacheStats() {
+        return catalogCache.getStats();
+    }
+    
+    @GetMapping("/password-hashing")
+    public Map<String, Object> getPasswordHashingStats() {
+        return passwordHashingService.getStats();
+    }
+    
+    @GetMapping("/uploads")
+    public Map<String, Object> getUploadStats() {
+        Map<String, Object> stats = new HashMap<>(imageUploadService.getStats());
+        stats.put("variants", imageVariantService.getStats());
+        stats.put("collection", imageGarbageCollector.getStats());
+        stats.put("cache", imageFileCache.getStats());
+        return stats;
+    }
+    
+    @PostMapping("/uploads/collect")
+    public Map<String, Object> collectUnusedImages() {
+        return imageGarbageCollector.collect();
+    }
+    
+    @GetMapping("/order-events")
+    public Map<String, Object> getOrderEventStats() {
+        Map<String, Object> stats = new HashMap<>(orderStatusBroadcaster.getStats());
+        stats.put("log", orderEventLog.getStats());
+        return stats;
+    }
+    
+    @GetMapping("/order-exports")
+    public Map<String, Object> getOrderExportStats() {
+        return orderExportService.getStats();
+    }
+    
+    @GetMapping("/virtual-threads")
+    public Map<String, Object> getVirtualThreadStats() {
+        Map<String, Object> stats = new HashMap<>(pinningMonitor.getStats());
+        if (dataSource instanceof ConnectionLimitingDataSource limited) {
+            stats.put("connectionLimit", limited.getStats());
+        }
+        return stats;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package com.example.backend.controller;
 
 import com.example.backend.entity.User;
+import com.example.backend.dto.UserProfile;
 import com.example.backend.dto.UserProfileRequest;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.Optional;
@@ -18,16 +22,23 @@ public class UserController {
     private UserRepository userRepository;
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserProfile(@PathVariable Long id) {
-        Optional<User> user = userRepository.findById(id);
-        if (user.isPresent()) {
-            return ResponseEntity.ok(user.get());
+    public ResponseEntity<?> getUserProfile(@AuthenticationPrincipal UserPrincipal principal, @PathVariable Long id) {
+        if (!principal.canAccessUser(id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Optional<UserProfile> profile = userRepository.findProfileById(id);
+        if (profile.isPresent()) {
+            return ResponseEntity.ok(profile.get());
         }
         return ResponseEntity.notFound().build();
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateUserProfile(@PathVariable Long id, @Valid @RequestBody UserProfileRequest request) {
+    public ResponseEntity<?> updateUserProfile(@AuthenticationPrincipal UserPrincipal principal, @PathVariable Long id,
+                                               @Valid @RequestBody UserProfileRequest request) {
+        if (!principal.canAccessUser(id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         try {
             Optional<User> existingUser = userRepository.findById(id);
             if (existingUser.isPresent()) {
@@ -37,7 +48,7 @@ public class UserController {
                 user.setAddress(request.getAddress());
                 // Note: Email updates might need additional verification
                 
-                return ResponseEntity.ok(userRepository.save(user));
+                return ResponseEntity.ok(UserProfile.from(userRepository.save(user)));
             }
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
@@ -1,13 +1,17 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.WishlistItem;
 import com.example.backend.entity.Wishlist;
 import com.example.backend.entity.User;
 import com.example.backend.entity.FoodItem;
 import com.example.backend.repository.WishlistRepository;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -26,17 +30,22 @@ public class WishlistController {
     private FoodItemRepository foodItemRepository;
     
     @GetMapping("/user/{userId}")
-    public List<Wishlist> getUserWishlist(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElse(null);
-        return user != null ? wishlistRepository.findByUser(user) : List.of();
+    public ResponseEntity<List<WishlistItem>> getUserWishlist(@AuthenticationPrincipal UserPrincipal principal,
+                                                              @PathVariable Long userId) {
+        if (!principal.canAccessUser(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(wishlistRepository.findItemsByUserId(userId));
     }
     
     @PostMapping
-    public ResponseEntity<Wishlist> addToWishlist(@RequestBody WishlistRequest request) {
-        User user = userRepository.findById(request.getUserId()).orElse(null);
-        FoodItem foodItem = foodItemRepository.findById(request.getFoodItemId()).orElse(null);
+    public ResponseEntity<WishlistItem> addToWishlist(@AuthenticationPrincipal UserPrincipal principal,
+                                                      @RequestBody WishlistRequest request) {
+        User user = userRepository.getReferenceById(principal.id());
+        FoodItem foodItem = request.getFoodItemId() != null
+            ? foodItemRepository.findById(request.getFoodItemId()).orElse(null) : null;
         
-        if (user == null || foodItem == null) {
+        if (foodItem == null) {
             return ResponseEntity.badRequest().build();
         }
         
@@ -48,27 +57,27 @@ public class WishlistController {
         wishlist.setUser(user);
         wishlist.setFoodItem(foodItem);
         
-        return ResponseEntity.ok(wishlistRepository.save(wishlist));
+        return ResponseEntity.ok(WishlistItem.from(wishlistRepository.save(wishlist)));
     }
     
     @DeleteMapping("/user/{userId}/item/{foodItemId}")
-    public ResponseEntity<?> removeFromWishlist(@PathVariable Long userId, @PathVariable Long foodItemId) {
-        User user = userRepository.findById(userId).orElse(null);
+    public ResponseEntity<?> removeFromWishlist(@AuthenticationPrincipal UserPrincipal principal,
+                                                @PathVariable Long userId, @PathVariable Long foodItemId) {
+        if (!principal.canAccessUser(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         FoodItem foodItem = foodItemRepository.findById(foodItemId).orElse(null);
         
-        if (user != null && foodItem != null) {
-            wishlistRepository.deleteByUserAndFoodItem(user, foodItem);
+        if (foodItem != null) {
+            wishlistRepository.deleteByUserAndFoodItem(userRepository.getReferenceById(userId), foodItem);
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
     }
     
     static class WishlistRequest {
-        private Long userId;
         private Long foodItemId;
         
-        public Long getUserId() { return userId; }
-        public void setUserId(Long userId) { this.userId = userId; }
         public Long getFoodItemId() { return foodItemId; }
         public void setFoodItemId(Long foodItemId) { this.foodItemId = foodItemId; }
     }
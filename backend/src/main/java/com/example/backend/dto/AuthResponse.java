@@ -0,0 +1,36 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.User;
+import java.time.Instant;
+
+public class AuthResponse {
+    private Long id;
+    private String email;
+    private String name;
+    private String phone;
+    private String address;
+    private User.Role role;
+    private String token;
+    private Instant expiresAt;
+    
+    public AuthResponse(User user, String token, Instant expiresAt) {
+        this.id = user.getId();
+        this.email = user.getEmail();
+        this.name = user.getName();
+        this.phone = user.getPhone();
+        this.address = user.getAddress();
+        this.role = user.getRole();
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getName() { return name; }
+    public String getPhone() { return phone; }
+    public String getAddress() { return address; }
+    public User.Role getRole() { return role; }
+    public String getToken() { return token; }
+    public Instant getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class HourlyCount {
+    private LocalDateTime hour;
+    private Long count;
+    private BigDecimal amount;
+    
+    public HourlyCount(LocalDate day, Integer hour, Long count, BigDecimal amount) {
+        this.hour = day.atTime(hour, 0);
+        this.count = count;
+        this.amount = amount;
+    }
+    
+    public HourlyCount(LocalDate day, Integer hour, Long count) {
+        this(day, hour, count, BigDecimal.ZERO);
+    }
+    
+    // Getters
+    public LocalDateTime getHour() { return hour; }
+    public Long getCount() { return count; }
+    public BigDecimal getAmount() { return amount; }
+}
@@ -0,0 +1,49 @@
+package com.example.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    private long imported;
+    private long failed;
+    private boolean completed = true;
+    private long elapsedMillis;
+    private final List<RowError> errors = new ArrayList<>();
+    
+    // Only the first maxErrors failures are listed; failed still counts them all
+    private final int maxErrors;
+    
+    public ImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+    
+    public void rowsImported(int count) {
+        imported += count;
+    }
+    
+    public void rowFailed(long line, String message) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        }
+    }
+    
+    // The input could not be read past line; rows before it stay imported
+    public void stopped(long line, String message) {
+        completed = false;
+        errors.add(new RowError(line, message));
+    }
+    
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    // Getters
+    public long getImported() { return imported; }
+    public long getFailed() { return failed; }
+    public boolean isCompleted() { return completed; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public List<RowError> getErrors() { return errors; }
+    
+    public record RowError(long line, String message) {}
+}
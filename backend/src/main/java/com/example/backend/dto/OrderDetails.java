@@ -0,0 +1,70 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Order;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderDetails {
+    private Long id;
+    private Long userId;
+    private String customerName;
+    private String customerEmail;
+    private Order.Status status;
+    private Order.OrderType orderType;
+    private Order.PaymentMethod paymentMethod;
+    private String deliveryAddress;
+    private String notes;
+    private BigDecimal subtotal;
+    private BigDecimal discountAmount;
+    private BigDecimal totalAmount;
+    private String couponCode;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private final List<OrderLine> items = new ArrayList<>();
+    
+    public OrderDetails(Long id, Long userId, String customerName, String customerEmail, Order.Status status,
+                        Order.OrderType orderType, Order.PaymentMethod paymentMethod, String deliveryAddress,
+                        String notes, BigDecimal subtotal, BigDecimal discountAmount, BigDecimal totalAmount,
+                        String couponCode, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.status = status;
+        this.orderType = orderType;
+        this.paymentMethod = paymentMethod;
+        this.deliveryAddress = deliveryAddress;
+        this.notes = notes;
+        this.subtotal = subtotal;
+        this.discountAmount = discountAmount;
+        this.totalAmount = totalAmount;
+        this.couponCode = couponCode;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Lines are read by a second query and added once the orders are loaded
+    public void addItem(OrderLine line) {
+        items.add(line);
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getCustomerName() { return customerName; }
+    public String getCustomerEmail() { return customerEmail; }
+    public Order.Status getStatus() { return status; }
+    public Order.OrderType getOrderType() { return orderType; }
+    public Order.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public String getDeliveryAddress() { return deliveryAddress; }
+    public String getNotes() { return notes; }
+    public BigDecimal getSubtotal() { return subtotal; }
+    public BigDecimal getDiscountAmount() { return discountAmount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public String getCouponCode() { return couponCode; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public List<OrderLine> getItems() { return items; }
+}
@@ -0,0 +1,45 @@
+package com.example.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+public class OrderEventFeed {
+    private List<OrderStatusEvent> events;
+    private String cursor;
+    private boolean hasMore;
+    
+    public OrderEventFeed(List<OrderStatusEvent> events, String cursor, boolean hasMore) {
+        this.events = events;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters
+    public List<OrderStatusEvent> getEvents() { return events; }
+    public String getCursor() { return cursor; }
+    public boolean isHasMore() { return hasMore; }
+    
+    // Cursor is an opaque "epoch|sequence|updatedAt|id": the event log run and the last sequence read
+    // from it, or -1 while catching up from the database past the last updatedAt and order id read
+    public static String encodeCursor(Cursor cursor) {
+        String raw = cursor.epoch() + "|" + cursor.sequence() + "|" + cursor.since() + "|" + cursor.afterId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new Cursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), LocalDateTime.parse(parts[2]),
+                Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    public record Cursor(long epoch, long sequence, LocalDateTime since, long afterId) {}
+}
@@ -0,0 +1,29 @@
+package com.example.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.math.BigDecimal;
+
+public class OrderLine {
+    private Long orderId;
+    private Long foodItemId;
+    private String foodItemName;
+    private Integer quantity;
+    private BigDecimal price;
+    
+    public OrderLine(Long orderId, Long foodItemId, String foodItemName, Integer quantity, BigDecimal price) {
+        this.orderId = orderId;
+        this.foodItemId = foodItemId;
+        this.foodItemName = foodItemName;
+        this.quantity = quantity;
+        this.price = price;
+    }
+    
+    // Getters
+    // Only used to attach the line to its order; the line is always sent inside it
+    @JsonIgnore
+    public Long getOrderId() { return orderId; }
+    public Long getFoodItemId() { return foodItemId; }
+    public String getFoodItemName() { return foodItemName; }
+    public Integer getQuantity() { return quantity; }
+    public BigDecimal getPrice() { return price; }
+}
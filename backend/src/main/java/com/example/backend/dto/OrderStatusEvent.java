@@ -0,0 +1,48 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Order;
+import java.time.LocalDateTime;
+
+public class OrderStatusEvent {
+    private Long sequence;
+    private Type type;
+    private Long orderId;
+    private Long userId;
+    private Order.Status status;
+    private LocalDateTime updatedAt;
+    
+    public OrderStatusEvent(Long sequence, Type type, Long orderId, Long userId, Order.Status status,
+                            LocalDateTime updatedAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.orderId = orderId;
+        this.userId = userId;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+    
+    // An order's current status as read from the database, outside the event log
+    public OrderStatusEvent(Long orderId, Long userId, Order.Status status, LocalDateTime updatedAt) {
+        this(null, null, orderId, userId, status, updatedAt);
+    }
+    
+    // A row found by the feed's catch-up query; the type is the last change the row shows
+    public OrderStatusEvent(Long orderId, Long userId, Order.Status status, LocalDateTime createdAt,
+                            LocalDateTime updatedAt) {
+        this(null, status == Order.Status.CANCELLED ? Type.CANCELLED
+                : updatedAt.equals(createdAt) ? Type.CREATED : Type.STATUS_CHANGED,
+            orderId, userId, status, updatedAt);
+    }
+    
+    // Getters
+    public Long getSequence() { return sequence; }
+    public Type getType() { return type; }
+    public Long getOrderId() { return orderId; }
+    public Long getUserId() { return userId; }
+    public Order.Status getStatus() { return status; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    
+    public enum Type {
+        CREATED, STATUS_CHANGED, CANCELLED
+    }
+}
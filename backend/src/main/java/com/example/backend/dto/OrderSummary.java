@@ -0,0 +1,42 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Order;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderSummary {
+    private Long id;
+    private Long userId;
+    private String userName;
+    private Order.Status status;
+    private Order.OrderType orderType;
+    private Order.PaymentMethod paymentMethod;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private Integer itemCount;
+    
+    public OrderSummary(Long id, Long userId, String userName, Order.Status status, Order.OrderType orderType,
+                        Order.PaymentMethod paymentMethod, BigDecimal totalAmount, LocalDateTime createdAt,
+                        Integer itemCount) {
+        this.id = id;
+        this.userId = userId;
+        this.userName = userName;
+        this.status = status;
+        this.orderType = orderType;
+        this.paymentMethod = paymentMethod;
+        this.totalAmount = totalAmount;
+        this.createdAt = createdAt;
+        this.itemCount = itemCount;
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public String getUserName() { return userName; }
+    public Order.Status getStatus() { return status; }
+    public Order.OrderType getOrderType() { return orderType; }
+    public Order.PaymentMethod getPaymentMethod() { return paymentMethod; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Integer getItemCount() { return itemCount; }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.Rating;
+import java.time.LocalDateTime;
+
+public class RatingEntry {
+    private Long id;
+    private Long foodItemId;
+    private Integer rating;
+    private String comment;
+    private LocalDateTime createdAt;
+    
+    public RatingEntry(Long id, Long foodItemId, Integer rating, String comment, LocalDateTime createdAt) {
+        this.id = id;
+        this.foodItemId = foodItemId;
+        this.rating = rating;
+        this.comment = comment;
+        this.createdAt = createdAt;
+    }
+    
+    public static RatingEntry from(Rating rating) {
+        return new RatingEntry(rating.getId(), rating.getFoodItem().getId(), rating.getRating(), rating.getComment(),
+            rating.getCreatedAt());
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public Long getFoodItemId() { return foodItemId; }
+    public Integer getRating() { return rating; }
+    public String getComment() { return comment; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
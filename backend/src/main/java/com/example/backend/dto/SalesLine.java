@@ -0,0 +1,29 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class SalesLine {
+    private LocalDateTime createdAt;
+    private Long foodItemId;
+    private Integer quantity;
+    private BigDecimal amount;
+    
+    public SalesLine(LocalDateTime createdAt, Long foodItemId, Integer quantity, BigDecimal price) {
+        this.createdAt = createdAt;
+        this.foodItemId = foodItemId;
+        this.quantity = quantity;
+        this.amount = price != null && quantity != null ? price.multiply(BigDecimal.valueOf(quantity)) : BigDecimal.ZERO;
+    }
+    
+    public SalesLine(LocalDateTime createdAt, BigDecimal totalAmount) {
+        this.createdAt = createdAt;
+        this.amount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+    }
+    
+    // Getters
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getFoodItemId() { return foodItemId; }
+    public Integer getQuantity() { return quantity; }
+    public BigDecimal getAmount() { return amount; }
+}
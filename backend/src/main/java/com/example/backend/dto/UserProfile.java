@@ -0,0 +1,39 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.User;
+import java.time.LocalDateTime;
+
+public class UserProfile {
+    private Long id;
+    private String email;
+    private String name;
+    private String phone;
+    private String address;
+    private User.Role role;
+    private LocalDateTime createdAt;
+    
+    public UserProfile(Long id, String email, String name, String phone, String address, User.Role role,
+                       LocalDateTime createdAt) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.phone = phone;
+        this.address = address;
+        this.role = role;
+        this.createdAt = createdAt;
+    }
+    
+    public static UserProfile from(User user) {
+        return new UserProfile(user.getId(), user.getEmail(), user.getName(), user.getPhone(), user.getAddress(),
+            user.getRole(), user.getCreatedAt());
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getName() { return name; }
+    public String getPhone() { return phone; }
+    public String getAddress() { return address; }
+    public User.Role getRole() { return role; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
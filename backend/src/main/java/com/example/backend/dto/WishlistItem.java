@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Wishlist;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A wishlisted food item; id is the food item's, since that is how entries are added and removed
+public class WishlistItem {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private Boolean available;
+    private Integer stockQuantity;
+    private Double averageRating;
+    private Integer ratingCount;
+    private LocalDateTime addedAt;
+    
+    public WishlistItem(Long id, String name, String description, BigDecimal price, String imageUrl,
+                        Boolean available, Integer stockQuantity, Double averageRating, Integer ratingCount,
+                        LocalDateTime addedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.available = available;
+        this.stockQuantity = stockQuantity;
+        this.averageRating = averageRating;
+        this.ratingCount = ratingCount;
+        this.addedAt = addedAt;
+    }
+    
+    public static WishlistItem from(Wishlist wishlist) {
+        FoodItem item = wishlist.getFoodItem();
+        return new WishlistItem(item.getId(), item.getName(), item.getDescription(), item.getPrice(),
+            item.getImageUrl(), item.getAvailable(), item.getStockQuantity(), item.getAverageRating(),
+            item.getRatingCount(), wishlist.getCreatedAt());
+    }
+    
+    // Getters
+    public Long getId() { return id; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public BigDecimal getPrice() { return price; }
+    public String getImageUrl() { return imageUrl; }
+    public Boolean getAvailable() { return available; }
+    public Integer getStockQuantity() { return stockQuantity; }
+    public Double getAverageRating() { return averageRating; }
+    public Integer getRatingCount() { return ratingCount; }
+    public LocalDateTime getAddedAt() { return addedAt; }
+}
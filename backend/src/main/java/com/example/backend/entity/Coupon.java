@@ -1,5 +1,6 @@
 package com.example.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "coupons")
 public class Coupon {
     @Id
@@ -22,5 +24,8 @@ public class Coupon {
     private LocalDateTime validTo;
     private Boolean active = true;
     private Integer usageLimit;
+    
+    // Only changed by the conditional increments in CouponRepository
+    @Column(updatable = false)
     private Integer usedCount = 0;
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order, revenue, sign-up and cancellation counters for one hour of the day.
+ */
+@Entity
+@Data
+@Table(name = "dashboard_rollups")
+public class DashboardRollup implements Persistable<LocalDateTime> {
+    @Id
+    private LocalDateTime hourStart;
+    
+    private Long orders = 0L;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private Long newUsers = 0L;
+    private Long cancellations = 0L;
+    private LocalDateTime updatedAt;
+    
+    // Rows use assigned ids; without this save() would select each one before inserting it
+    @Transient
+    private boolean isNew = true;
+    
+    @Override
+    public LocalDateTime getId() {
+        return hourStart;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
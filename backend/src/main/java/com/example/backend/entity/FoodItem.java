@@ -1,11 +1,14 @@
 package com.example.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
 
 @Entity
 @Data
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "food_items")
 public class FoodItem {
     @Id
@@ -17,11 +20,20 @@ public class FoodItem {
     private BigDecimal price;
     private String imageUrl;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Category category;
     
     private Boolean available = true;
     private Integer stockQuantity = 0;
+    
+    // Rating aggregates are only changed through the atomic updates in FoodItemRepository
+    @Column(updatable = false)
     private Double averageRating = 0.0;
+    
+    @Column(updatable = false)
     private Integer ratingCount = 0;
+    
+    @JsonIgnore
+    @Column(updatable = false)
+    private Long ratingSum = 0L;
 }
\ No newline at end of file
@@ -1,30 +1,48 @@
 package com.example.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name = "orders")
-public class Order {
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_orders_updated_at_id", columnList = "updated_at, id")
+})
+public class Order implements Persistable<Long> {
+    // Assigned from OrderIdAllocator before the order is saved, which lets Hibernate batch
+    // order and line item inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    // Associations stay out of equals, hashCode and toString, which would otherwise load them
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<OrderItem> items;
     
     private BigDecimal subtotal;
     private BigDecimal discountAmount = BigDecimal.ZERO;
     private BigDecimal totalAmount;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Coupon coupon;
     
     @Enumerated(EnumType.STRING)
@@ -39,9 +57,34 @@ public class Order {
     private String deliveryAddress;
     private String notes;
     
+    // Orders placed before stock reservation existed hold nothing to release on cancel
+    @JsonIgnore
+    private Boolean stockReserved = false;
+    
+    // Orders use assigned ids; without this save() would select each one before inserting it
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean isNew = true;
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        // Set on insert too, so the order event feed can catch up on updated_at alone
+        updatedAt = createdAt;
     }
     
     private LocalDateTime createdAt;
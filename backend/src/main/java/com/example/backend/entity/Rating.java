@@ -1,21 +1,24 @@
 package com.example.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "ratings")
+@Table(name = "ratings", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "food_item_id"}))
 public class Rating {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    // Always the caller, so responses leave it out rather than loading the user row
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private User user;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private FoodItem foodItem;
     
     private Integer rating; // 1-5
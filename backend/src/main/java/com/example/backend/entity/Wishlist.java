@@ -1,5 +1,6 @@
 package com.example.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -12,10 +13,12 @@ public class Wishlist {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    // Always the caller, so responses leave it out rather than loading the user row
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonIgnore
     private User user;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private FoodItem foodItem;
     
     private LocalDateTime createdAt = LocalDateTime.now();
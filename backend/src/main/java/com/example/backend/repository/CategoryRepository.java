@@ -2,8 +2,16 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByActiveTrue();
+    
+    @Query("SELECT c.imageUrl, COUNT(c) FROM Category c WHERE c.imageUrl LIKE CONCAT('%', :urlPrefix, '%') " +
+           "GROUP BY c.imageUrl")
+    List<Object[]> countUploadedImageReferences(@Param("urlPrefix") String urlPrefix);
+    
+    boolean existsByImageUrlContaining(String imageUrl);
 }
\ No newline at end of file
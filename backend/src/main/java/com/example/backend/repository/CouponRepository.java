@@ -2,10 +2,26 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
     Optional<Coupon> findByCodeAndActiveTrue(String code);
     List<Coupon> findByActiveTrue();
-}
\ No newline at end of file
+    
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = COALESCE(c.usedCount, 0) + 1 " +
+           "WHERE c.id = :id AND c.active = true " +
+           "AND (c.usageLimit IS NULL OR COALESCE(c.usedCount, 0) < c.usageLimit) " +
+           "AND (c.validFrom IS NULL OR c.validFrom <= :now) " +
+           "AND (c.validTo IS NULL OR c.validTo >= :now)")
+    int redeem(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount - 1 WHERE c.id = :id AND c.usedCount > 0")
+    int releaseRedemption(@Param("id") Long id);
+}
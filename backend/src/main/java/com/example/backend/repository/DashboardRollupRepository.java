@@ -0,0 +1,8 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.DashboardRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
+
+public interface DashboardRollupRepository extends JpaRepository<DashboardRollup, LocalDateTime> {
+}
@@ -2,15 +2,80 @@ package com.example.backend.repository;
 
 import com.example.backend.entity.FoodItem;
 import com.example.backend.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface FoodItemRepository extends JpaRepository<FoodItem, Long> {
     List<FoodItem> findByAvailableTrue();
     List<FoodItem> findByCategory(Category category);
+    
+    @EntityGraph(attributePaths = "category")
     List<FoodItem> findByNameContainingIgnoreCaseAndAvailableTrue(String name);
     
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT f FROM FoodItem f")
+    List<FoodItem> findAllWithCategory();
+    
+    // Read only: orders take price and availability from these and never change them
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<FoodItem> findByIdIn(Collection<Long> ids);
+    
     @Query("SELECT f FROM FoodItem f WHERE f.available = true ORDER BY f.averageRating DESC")
     List<FoodItem> findTopRatedItems();
-}
\ No newline at end of file
+    
+    @Query("SELECT f.stockQuantity FROM FoodItem f WHERE f.id = :id")
+    Integer findStockQuantityById(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE FoodItem f SET f.stockQuantity = f.stockQuantity - :quantity " +
+           "WHERE f.id = :id AND f.stockQuantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE FoodItem f SET f.stockQuantity = f.stockQuantity + :quantity WHERE f.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    @Modifying
+    @Query("UPDATE FoodItem f SET f.available = false WHERE f.id = :id AND f.stockQuantity <= 0")
+    int markSoldOutIfEmpty(@Param("id") Long id);
+    
+    boolean existsByRatingSumIsNull();
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FoodItem f SET f.ratingSum = COALESCE(f.ratingSum, 0) + :sumDelta, " +
+           "f.ratingCount = COALESCE(f.ratingCount, 0) + :countDelta WHERE f.id = :id")
+    int applyRatingDelta(@Param("id") Long id, @Param("sumDelta") long sumDelta, @Param("countDelta") int countDelta);
+    
+    // Kept separate from the sum/count update: MySQL and H2 disagree on whether later SET
+    // expressions see earlier assignments within the same statement
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE FoodItem f SET f.averageRating = CASE WHEN f.ratingCount > 0 " +
+           "THEN CAST(f.ratingSum AS double) / f.ratingCount ELSE 0.0 END WHERE f.id = :id")
+    int refreshAverageRating(@Param("id") Long id);
+    
+    @Query("SELECT f.id, f.ratingCount, f.ratingSum, COUNT(r.id), COALESCE(SUM(r.rating), 0) " +
+           "FROM FoodItem f LEFT JOIN Rating r ON r.foodItem = f " +
+           "GROUP BY f.id, f.ratingCount, f.ratingSum")
+    List<Object[]> findRatingAggregates();
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FoodItem f SET " +
+           "f.ratingCount = (SELECT COUNT(r) FROM Rating r WHERE r.foodItem.id = :id), " +
+           "f.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Rating r WHERE r.foodItem.id = :id) " +
+           "WHERE f.id = :id")
+    int recomputeRatingAggregates(@Param("id") Long id);
+    
+    @Query("SELECT f.imageUrl, COUNT(f) FROM FoodItem f WHERE f.imageUrl LIKE CONCAT('%', :urlPrefix, '%') " +
+           "GROUP BY f.imageUrl")
+    List<Object[]> countUploadedImageReferences(@Param("urlPrefix") String urlPrefix);
+    
+    boolean existsByImageUrlContaining(String imageUrl);
+}
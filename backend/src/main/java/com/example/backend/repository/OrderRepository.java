@@ -1,11 +1,98 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.HourlyCount;
+import com.example.backend.dto.OrderDetails;
+import com.example.backend.dto.OrderLine;
+import com.example.backend.dto.OrderStatusEvent;
+import com.example.backend.dto.OrderSummary;
+import com.example.backend.dto.SalesLine;
 import com.example.backend.entity.Order;
-import com.example.backend.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserOrderByCreatedAtDesc(User user);
-    List<Order> findAllByOrderByCreatedAtDesc();
-}
\ No newline at end of file
+    // Responses are read as projections, so no order, user or line entities are built for them
+    @Query("SELECT new com.example.backend.dto.OrderDetails(o.id, u.id, u.name, u.email, o.status, o.orderType, " +
+           "o.paymentMethod, o.deliveryAddress, o.notes, o.subtotal, o.discountAmount, o.totalAmount, c.code, " +
+           "o.createdAt, o.updatedAt) FROM Order o LEFT JOIN o.user u LEFT JOIN o.coupon c WHERE o.id = :id")
+    Optional<OrderDetails> findDetailsById(@Param("id") Long id);
+    
+    @Query("SELECT new com.example.backend.dto.OrderLine(i.order.id, f.id, f.name, i.quantity, i.price) " +
+           "FROM OrderItem i LEFT JOIN i.foodItem f WHERE i.order.id = :id ORDER BY i.id")
+    List<OrderLine> findLinesByOrderId(@Param("id") Long id);
+    
+    @EntityGraph(attributePaths = {"user", "coupon", "items", "items.foodItem", "items.foodItem.category"})
+    Optional<Order> findWithDetailsById(Long id);
+    
+    // Compare-and-set on the status: no row changes if another transaction moved the order first.
+    // Clears the persistence context, so the order loaded before is not written a second time on flush
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt, o.stockReserved = :stockReserved " +
+           "WHERE o.id = :id AND o.status = :from")
+    int transition(@Param("id") Long id, @Param("from") Order.Status from, @Param("status") Order.Status status,
+                   @Param("stockReserved") Boolean stockReserved, @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Query("SELECT new com.example.backend.dto.OrderStatusEvent(o.id, u.id, o.status, " +
+           "COALESCE(o.updatedAt, o.createdAt)) FROM Order o LEFT JOIN o.user u WHERE o.id = :id")
+    Optional<OrderStatusEvent> findStatusById(@Param("id") Long id);
+    
+    // Catch-up for order event feed readers that fell behind the in-memory log
+    @Query("SELECT new com.example.backend.dto.OrderStatusEvent(o.id, u.id, o.status, o.createdAt, o.updatedAt) " +
+           "FROM Order o LEFT JOIN o.user u " +
+           "WHERE o.updatedAt > :since OR (o.updatedAt = :since AND o.id > :afterId) " +
+           "ORDER BY o.updatedAt, o.id")
+    List<OrderStatusEvent> findChangedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                            Limit limit);
+    
+    @Query("SELECT new com.example.backend.dto.OrderSummary(o.id, u.id, u.name, o.status, o.orderType, " +
+           "o.paymentMethod, o.totalAmount, o.createdAt, SIZE(o.items)) " +
+           "FROM Order o LEFT JOIN o.user u " +
+           "WHERE (:userId IS NULL OR u.id = :userId) " +
+           "AND (:status IS NULL OR o.status = :status) " +
+           "AND (:from IS NULL OR o.createdAt >= :from) " +
+           "AND (:to IS NULL OR o.createdAt < :to) " +
+           "AND (:afterCreatedAt IS NULL OR o.createdAt < :afterCreatedAt " +
+           "OR (o.createdAt = :afterCreatedAt AND o.id < :afterId)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummaries(@Param("userId") Long userId,
+                                     @Param("status") Order.Status status,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") Long afterId,
+                                     Limit limit);
+    
+    @Query("SELECT new com.example.backend.dto.HourlyCount(CAST(o.createdAt AS LocalDate), EXTRACT(HOUR FROM o.createdAt), " +
+           "COUNT(o), COALESCE(SUM(CASE WHEN o.status <> :cancelled THEN o.totalAmount ELSE 0 END), 0)) " +
+           "FROM Order o WHERE o.createdAt IS NOT NULL " +
+           "GROUP BY CAST(o.createdAt AS LocalDate), EXTRACT(HOUR FROM o.createdAt)")
+    List<HourlyCount> countPlacedByHour(@Param("cancelled") Order.Status cancelled);
+    
+    // Cancellations are bucketed by when they happened, which is the order's last update
+    @Query("SELECT new com.example.backend.dto.HourlyCount(CAST(COALESCE(o.updatedAt, o.createdAt) AS LocalDate), " +
+           "EXTRACT(HOUR FROM COALESCE(o.updatedAt, o.createdAt)), COUNT(o)) " +
+           "FROM Order o WHERE o.status = :cancelled AND o.createdAt IS NOT NULL " +
+           "GROUP BY CAST(COALESCE(o.updatedAt, o.createdAt) AS LocalDate), EXTRACT(HOUR FROM COALESCE(o.updatedAt, o.createdAt))")
+    List<HourlyCount> countCancelledByHour(@Param("cancelled") Order.Status cancelled);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.backend.dto.SalesLine(o.createdAt, o.totalAmount) " +
+           "FROM Order o WHERE o.status <> :cancelled AND o.createdAt IS NOT NULL")
+    Stream<SalesLine> streamSalesOrders(@Param("cancelled") Order.Status cancelled);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.backend.dto.SalesLine(o.createdAt, i.foodItem.id, i.quantity, i.price) " +
+           "FROM OrderItem i JOIN i.order o WHERE o.status <> :cancelled AND o.createdAt IS NOT NULL")
+    Stream<SalesLine> streamSalesLines(@Param("cancelled") Order.Status cancelled);
+}
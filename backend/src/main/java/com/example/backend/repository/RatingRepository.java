@@ -1,20 +1,27 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.RatingEntry;
 import com.example.backend.entity.Rating;
 import com.example.backend.entity.User;
 import com.example.backend.entity.FoodItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 
 public interface RatingRepository extends JpaRepository<Rating, Long> {
-    List<Rating> findByFoodItem(FoodItem foodItem);
+    @Query("SELECT new com.example.backend.dto.RatingEntry(r.id, r.foodItem.id, r.rating, r.comment, r.createdAt) " +
+           "FROM Rating r WHERE r.foodItem.id = :foodItemId ORDER BY r.createdAt DESC, r.id DESC")
+    List<RatingEntry> findEntriesByFoodItemId(@Param("foodItemId") Long foodItemId);
+    
     Optional<Rating> findByUserAndFoodItem(User user, FoodItem foodItem);
     
-    @Query("SELECT AVG(r.rating) FROM Rating r WHERE r.foodItem = ?1")
-    Double getAverageRatingByFoodItem(FoodItem foodItem);
+    // Loads nothing into the persistence context, so a later locked read is not answered from it
+    boolean existsByUserAndFoodItem(User user, FoodItem foodItem);
     
-    @Query("SELECT COUNT(r) FROM Rating r WHERE r.foodItem = ?1")
-    Integer getRatingCountByFoodItem(FoodItem foodItem);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Rating> findForUpdateByUserAndFoodItem(User user, FoodItem foodItem);
 }
\ No newline at end of file
@@ -1,10 +1,24 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.HourlyCount;
+import com.example.backend.dto.UserProfile;
 import com.example.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByRole(User.Role role);
-}
\ No newline at end of file
+    
+    @Query("SELECT new com.example.backend.dto.UserProfile(u.id, u.email, u.name, u.phone, u.address, u.role, " +
+           "u.createdAt) FROM User u WHERE u.id = :id")
+    Optional<UserProfile> findProfileById(@Param("id") Long id);
+    
+    @Query("SELECT new com.example.backend.dto.HourlyCount(CAST(u.createdAt AS LocalDate), EXTRACT(HOUR FROM u.createdAt), COUNT(u)) " +
+           "FROM User u WHERE u.createdAt IS NOT NULL " +
+           "GROUP BY CAST(u.createdAt AS LocalDate), EXTRACT(HOUR FROM u.createdAt)")
+    List<HourlyCount> countCreatedByHour();
+}
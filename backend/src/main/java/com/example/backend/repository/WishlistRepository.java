@@ -1,14 +1,24 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.WishlistItem;
 import com.example.backend.entity.Wishlist;
 import com.example.backend.entity.User;
 import com.example.backend.entity.FoodItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
-    List<Wishlist> findByUser(User user);
+    @Query("SELECT new com.example.backend.dto.WishlistItem(f.id, f.name, f.description, f.price, f.imageUrl, " +
+           "f.available, f.stockQuantity, f.averageRating, f.ratingCount, w.createdAt) " +
+           "FROM Wishlist w JOIN w.foodItem f WHERE w.user.id = :userId ORDER BY w.createdAt, w.id")
+    List<WishlistItem> findItemsByUserId(@Param("userId") Long userId);
+    
     Optional<Wishlist> findByUserAndFoodItem(User user, FoodItem foodItem);
+    
+    @Transactional
     void deleteByUserAndFoodItem(User user, FoodItem foodItem);
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.example.backend.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on a fixed pool sized to the CPU with a bounded queue, so a burst of
+ * logins cannot occupy every request thread. Work that does not fit in the queue is
+ * rejected immediately with {@link RejectedExecutionException}.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final int bcryptCost;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long benchmarkMillis = -1;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${app.auth.bcrypt-cost:10}") int bcryptCost,
+                                  @Value("${app.auth.hash-threads:0}") int threads,
+                                  @Value("${app.auth.hash-queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.bcryptCost = bcryptCost;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Times one hash at the configured cost so the log shows what this machine can sustain.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void benchmark() {
+        long start = System.nanoTime();
+        passwordEncoder.encode("benchmark-password");
+        benchmarkMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("BCrypt cost {} takes {} ms per hash; about {} hashes/s on {} threads ({} cores)",
+            bcryptCost, benchmarkMillis, executor.getMaximumPoolSize() * 1000 / benchmarkMillis,
+            executor.getMaximumPoolSize(), Runtime.getRuntime().availableProcessors());
+    }
+
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Seconds a rejected caller should wait: the time needed to drain the current queue.
+     */
+    public long retryAfterSeconds() {
+        long perHashNanos = completed.sum() > 0 ? totalNanos.sum() / completed.sum()
+            : TimeUnit.MILLISECONDS.toNanos(Math.max(benchmarkMillis, 100));
+        long backlog = executor.getQueue().size() + executor.getActiveCount();
+        long nanos = backlog * perHashNanos / executor.getMaximumPoolSize();
+        return Math.max(1, (long) Math.ceil(nanos / 1e9));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = completed.sum();
+        stats.put("bcryptCost", bcryptCost);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("averageMillis", count > 0 ? totalNanos.sum() / count / 1_000_000.0 : 0.0);
+        stats.put("maxMillis", maxNanos.get() / 1_000_000.0);
+        stats.put("benchmarkMillis", benchmarkMillis);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> hashing) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return hashing.get();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    completed.increment();
+                    totalNanos.add(elapsed);
+                    maxNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+}
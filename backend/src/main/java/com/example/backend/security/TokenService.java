@@ -0,0 +1,140 @@
+package com.example.backend.security;
+
+import com.example.backend.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed bearer tokens of the form
+ * base64url(userId|role|expiresAt).base64url(signature). Verified tokens are kept in
+ * a bounded concurrent map so repeat requests skip both the signature check and any user
+ * lookup without taking a lock; once full, an arbitrary entry makes room for a new one.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> macs;
+    private final Map<String, UserPrincipal> verified = new ConcurrentHashMap<>();
+    private final int cacheSize;
+
+    public TokenService(@Value("${app.auth.token-secret:}") String secret,
+                        @Value("${app.auth.token-ttl-hours:12}") long ttlHours,
+                        @Value("${app.auth.principal-cache-size:10000}") int cacheSize) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            // Tokens then stop verifying after a restart, which is fine for development only
+            log.warn("app.auth.token-secret is not set; using a random key for this run");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.cacheSize = cacheSize;
+    }
+
+    public IssuedToken issue(User user) {
+        Instant expiresAt = Instant.now().plus(ttl).truncatedTo(ChronoUnit.SECONDS);
+        String payload = user.getId() + "|" + user.getRole() + "|" + expiresAt.getEpochSecond();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return new IssuedToken(encoded + "." + ENCODER.encodeToString(sign(encoded)), expiresAt);
+    }
+
+    /**
+     * Returns the principal for a valid, unexpired token, or null.
+     */
+    public UserPrincipal verify(String token) {
+        UserPrincipal principal = verified.get(token);
+        if (principal == null) {
+            principal = parse(token);
+            if (principal == null) {
+                return null;
+            }
+            if (verified.size() >= cacheSize) {
+                evictOne();
+            }
+            verified.put(token, principal);
+        }
+        if (principal.expiresAt().isBefore(Instant.now())) {
+            verified.remove(token);
+            return null;
+        }
+        return principal;
+    }
+
+    public int cacheSize() {
+        return verified.size();
+    }
+
+    // Approximate: concurrent misses can each evict one entry, or briefly overshoot the bound
+    private void evictOne() {
+        Iterator<String> tokens = verified.keySet().iterator();
+        if (tokens.hasNext()) {
+            tokens.next();
+            tokens.remove();
+        }
+    }
+
+    private UserPrincipal parse(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        String encoded = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encoded))) {
+                return null;
+            }
+            String[] parts = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                return null;
+            }
+            return new UserPrincipal(Long.valueOf(parts[0]), User.Role.valueOf(parts[1]),
+                Instant.ofEpochSecond(Long.parseLong(parts[2])));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.security;
+
+import com.example.backend.entity.User;
+import java.time.Instant;
+
+/**
+ * The caller as carried by a verified token: enough to authorize a request without
+ * loading the user row.
+ */
+public record UserPrincipal(Long id, User.Role role, Instant expiresAt) {
+
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+
+    public boolean canAccessUser(Long userId) {
+        return isAdmin() || id.equals(userId);
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Category;
+import com.example.backend.entity.FoodItem;
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.FoodItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory read model of the menu. Reads are served from an immutable snapshot;
+ * writes replace the snapshot once the surrounding transaction has committed.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Comparator<FoodItem> BY_ID = Comparator.comparing(FoodItem::getId);
+    private static final Comparator<FoodItem> BY_RATING = Comparator
+        .comparing((FoodItem f) -> f.getAverageRating() != null ? f.getAverageRating() : 0.0)
+        .reversed()
+        .thenComparing(BY_ID);
+
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    // A lock rather than synchronized: load() runs JDBC while holding it, which would pin a virtual thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong patches = new AtomicLong();
+    private volatile long lastRebuildMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        writeLock.lock();
+        try {
+            snapshot = load();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<Category> getActiveCategories() {
+        return snapshot().activeCategories;
+    }
+
+    public List<Category> getAllCategories() {
+        return snapshot().allCategories;
+    }
+
+    public List<FoodItem> getAvailableItems() {
+        return snapshot().availableItems;
+    }
+
+    public List<FoodItem> getAllItems() {
+        return snapshot().allItems;
+    }
+
+    public List<FoodItem> getTopRatedItems() {
+        return snapshot().topRatedItems;
+    }
+
+    public List<FoodItem> getItemsByCategory(Long categoryId) {
+        return snapshot().itemsByCategory.getOrDefault(categoryId, List.of());
+    }
+
+    public List<FoodItem> search(String query) {
+        Snapshot s = snapshot();
+        List<FoodItem> results = new ArrayList<>();
+        for (Long id : s.searchIndex.search(query)) {
+            FoodItem item = s.itemsById.get(id);
+            if (item != null && Boolean.TRUE.equals(item.getAvailable())) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    public FoodItem getItem(Long id) {
+        return snapshot().itemsById.get(id);
+    }
+
+    public Category getCategory(Long id) {
+        return snapshot().categoriesById.get(id);
+    }
+
+    public void foodItemSaved(FoodItem item) {
+        AfterCommit.run(() -> patch(s -> {
+            FoodItem copy = copyOf(item);
+            // The saved item may carry an uninitialized category proxy; use the cached category instead
+            if (item.getCategory() != null && s.categoriesById.containsKey(item.getCategory().getId())) {
+                copy.setCategory(s.categoriesById.get(item.getCategory().getId()));
+            }
+            Map<Long, FoodItem> items = new HashMap<>(s.itemsById);
+            items.put(copy.getId(), copy);
+            s.searchIndex.index(copy);
+            return new Snapshot(s.categoriesById, items, s.searchIndex);
+        }));
+    }
+
+    public void foodItemSoldOut(Long id) {
+        AfterCommit.run(() -> patch(s -> {
+            FoodItem item = s.itemsById.get(id);
+            if (item == null) {
+                return s;
+            }
+            FoodItem copy = copyOf(item);
+            copy.setStockQuantity(0);
+            copy.setAvailable(false);
+            Map<Long, FoodItem> items = new HashMap<>(s.itemsById);
+            items.put(id, copy);
+            return new Snapshot(s.categoriesById, items, s.searchIndex);
+        }));
+    }
+
+    public void foodItemDeleted(Long id) {
+        AfterCommit.run(() -> patch(s -> {
+            Map<Long, FoodItem> items = new HashMap<>(s.itemsById);
+            items.remove(id);
+            s.searchIndex.remove(id);
+            return new Snapshot(s.categoriesById, items, s.searchIndex);
+        }));
+    }
+
+    public void categorySaved(Category category) {
+        AfterCommit.run(() -> patch(s -> {
+            Map<Long, Category> categories = new HashMap<>(s.categoriesById);
+            categories.put(category.getId(), category);
+            Map<Long, FoodItem> items = new HashMap<>(s.itemsById);
+            for (FoodItem item : s.itemsById.values()) {
+                if (item.getCategory() != null && Objects.equals(item.getCategory().getId(), category.getId())) {
+                    FoodItem copy = copyOf(item);
+                    copy.setCategory(category);
+                    items.put(copy.getId(), copy);
+                    s.searchIndex.index(copy);
+                }
+            }
+            return new Snapshot(categories, items, s.searchIndex);
+        }));
+    }
+
+    public void categoryDeleted(Long id) {
+        AfterCommit.run(this::invalidate);
+    }
+
+    public void invalidate() {
+        writeLock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Snapshot current = snapshot;
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("patches", patches.get());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("loaded", current != null);
+        stats.put("categories", current != null ? current.categoriesById.size() : 0);
+        stats.put("foodItems", current != null ? current.itemsById.size() : 0);
+        stats.put("searchTerms", current != null ? current.searchIndex.termCount() : 0);
+        return stats;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.incrementAndGet();
+            return current;
+        }
+        misses.incrementAndGet();
+        writeLock.lock();
+        try {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        long start = System.currentTimeMillis();
+        Map<Long, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put(category.getId(), category);
+        }
+        Map<Long, FoodItem> items = new HashMap<>();
+        for (FoodItem item : foodItemRepository.findAllWithCategory()) {
+            items.put(item.getId(), item);
+        }
+        FoodSearchIndex searchIndex = new FoodSearchIndex();
+        searchIndex.indexAll(items.values());
+        Snapshot loaded = new Snapshot(categories, items, searchIndex);
+        rebuilds.incrementAndGet();
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        return loaded;
+    }
+
+    private void patch(UnaryOperator<Snapshot> change) {
+        writeLock.lock();
+        try {
+            // Nothing loaded yet: the next read picks the change up from the database
+            if (snapshot != null) {
+                snapshot = change.apply(snapshot);
+                patches.incrementAndGet();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static FoodItem copyOf(FoodItem item) {
+        FoodItem copy = new FoodItem();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setDescription(item.getDescription());
+        copy.setPrice(item.getPrice());
+        copy.setImageUrl(item.getImageUrl());
+        copy.setCategory(item.getCategory());
+        copy.setAvailable(item.getAvailable());
+        copy.setStockQuantity(item.getStockQuantity());
+        copy.setAverageRating(item.getAverageRating());
+        copy.setRatingCount(item.getRatingCount());
+        return copy;
+    }
+
+    private static final class Snapshot {
+        final Map<Long, Category> categoriesById;
+        final Map<Long, FoodItem> itemsById;
+        final List<Category> allCategories;
+        final List<Category> activeCategories;
+        final List<FoodItem> allItems;
+        final List<FoodItem> availableItems;
+        final List<FoodItem> topRatedItems;
+        final Map<Long, List<FoodItem>> itemsByCategory;
+        final FoodSearchIndex searchIndex;
+
+        Snapshot(Map<Long, Category> categoriesById, Map<Long, FoodItem> itemsById, FoodSearchIndex searchIndex) {
+            this.searchIndex = searchIndex;
+            this.categoriesById = Map.copyOf(categoriesById);
+            this.itemsById = Map.copyOf(itemsById);
+
+            List<Category> categories = new ArrayList<>(categoriesById.values());
+            categories.sort(Comparator.comparing(Category::getId));
+            this.allCategories = List.copyOf(categories);
+            this.activeCategories = categories.stream()
+                .filter(c -> Boolean.TRUE.equals(c.getActive()))
+                .toList();
+
+            List<FoodItem> items = new ArrayList<>(itemsById.values());
+            items.sort(BY_ID);
+            this.allItems = List.copyOf(items);
+            this.availableItems = items.stream()
+                .filter(f -> Boolean.TRUE.equals(f.getAvailable()))
+                .toList();
+            this.topRatedItems = availableItems.stream()
+                .sorted(BY_RATING)
+                .toList();
+
+            Map<Long, List<FoodItem>> byCategory = new HashMap<>();
+            for (FoodItem item : items) {
+                if (item.getCategory() != null) {
+                    byCategory.computeIfAbsent(item.getCategory().getId(), k -> new ArrayList<>()).add(item);
+                }
+            }
+            byCategory.replaceAll((k, v) -> List.copyOf(v));
+            this.itemsByCategory = Map.copyOf(byCategory);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Coupon;
+import com.example.backend.repository.CouponRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates coupons from an in-memory index of active coupons keyed by code, and
+ * redeems them with a single conditional increment so usageLimit is never exceeded.
+ */
+@Service
+public class CouponService {
+    
+    @Autowired
+    private CouponRepository couponRepository;
+    
+    private volatile Map<String, CachedCoupon> coupons = Map.of();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.coupons.refresh-interval-ms:60000}", initialDelayString = "${app.coupons.refresh-interval-ms:60000}")
+    public void refresh() {
+        Map<String, CachedCoupon> loaded = new HashMap<>();
+        for (Coupon coupon : couponRepository.findByActiveTrue()) {
+            if (coupon.getCode() != null) {
+                int used = coupon.getUsedCount() != null ? coupon.getUsedCount() : 0;
+                loaded.put(key(coupon.getCode()), new CachedCoupon(coupon, new AtomicInteger(used)));
+            }
+        }
+        coupons = Map.copyOf(loaded);
+    }
+    
+    public void couponSaved() {
+        AfterCommit.run(this::refresh);
+    }
+    
+    /**
+     * Checks a code against the cached coupons without touching the database.
+     * Throws IllegalArgumentException with the reason when the coupon cannot be used.
+     */
+    public Coupon validate(String code) {
+        CachedCoupon cached = code != null ? coupons.get(key(code)) : null;
+        if (cached == null) {
+            throw new IllegalArgumentException("Invalid coupon code");
+        }
+        
+        Coupon c = cached.coupon();
+        LocalDateTime now = LocalDateTime.now();
+        
+        if (c.getValidFrom() != null && now.isBefore(c.getValidFrom())) {
+            throw new IllegalArgumentException("Coupon not yet valid");
+        }
+        
+        if (c.getValidTo() != null && now.isAfter(c.getValidTo())) {
+            throw new IllegalArgumentException("Coupon expired");
+        }
+        
+        if (c.getUsageLimit() != null && cached.used().get() >= c.getUsageLimit()) {
+            throw new IllegalArgumentException("Coupon usage limit exceeded");
+        }
+        
+        return withUsedCount(c, cached.used().get());
+    }
+    
+    /**
+     * Redeems a coupon for an order with the given subtotal within the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Redemption redeem(String code, BigDecimal subtotal) {
+        Coupon coupon = validate(code);
+        
+        if (coupon.getMinOrderAmount() != null && subtotal.compareTo(coupon.getMinOrderAmount()) < 0) {
+            throw new IllegalArgumentException("Order total is below the coupon minimum");
+        }
+        
+        // The database re-checks the limit and validity window in the same statement
+        if (couponRepository.redeem(coupon.getId(), LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Coupon usage limit exceeded");
+        }
+        
+        CachedCoupon cached = coupons.get(key(code));
+        if (cached != null) {
+            AfterCommit.run(() -> cached.used().incrementAndGet());
+        }
+        return new Redemption(couponRepository.getReferenceById(coupon.getId()), discountFor(coupon, subtotal));
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Coupon coupon) {
+        if (couponRepository.releaseRedemption(coupon.getId()) > 0) {
+            AfterCommit.run(() -> coupons.values().stream()
+                .filter(cached -> cached.coupon().getId().equals(coupon.getId()))
+                .findFirst()
+                .ifPresent(cached -> cached.used().decrementAndGet()));
+        }
+    }
+    
+    private static BigDecimal discountFor(Coupon coupon, BigDecimal subtotal) {
+        BigDecimal discount = BigDecimal.ZERO;
+        if (coupon.getDiscountAmount() != null) {
+            discount = coupon.getDiscountAmount();
+        } else if (coupon.getDiscountPercentage() != null) {
+            discount = subtotal.multiply(coupon.getDiscountPercentage())
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        }
+        return discount.min(subtotal);
+    }
+    
+    private static String key(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    private static Coupon withUsedCount(Coupon source, int usedCount) {
+        Coupon copy = new Coupon();
+        copy.setId(source.getId());
+        copy.setCode(source.getCode());
+        copy.setDescription(source.getDescription());
+        copy.setDiscountAmount(source.getDiscountAmount());
+        copy.setDiscountPercentage(source.getDiscountPercentage());
+        copy.setMinOrderAmount(source.getMinOrderAmount());
+        copy.setValidFrom(source.getValidFrom());
+        copy.setValidTo(source.getValidTo());
+        copy.setActive(source.getActive());
+        copy.setUsageLimit(source.getUsageLimit());
+        copy.setUsedCount(usedCount);
+        return copy;
+    }
+    
+    public record Redemption(Coupon coupon, BigDecimal discount) {}
+    
+    private record CachedCoupon(Coupon coupon, AtomicInteger used) {}
+}
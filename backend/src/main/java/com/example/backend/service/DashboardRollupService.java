@@ -0,0 +1,285 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.HourlyCount;
+import com.example.backend.entity.DashboardRollup;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.User;
+import com.example.backend.repository.DashboardRollupRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-hour and per-day dashboard counters kept in memory and updated as orders and
+ * users are committed. Counters are rebuilt from the orders and users tables on
+ * startup and written through to the dashboard_rollups table in the background.
+ * Changes committed while a rebuild scans the tables are held back and replayed onto
+ * the rebuilt counters rather than lost with the old ones.
+ */
+@Service
+public class DashboardRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardRollupService.class);
+
+    @Autowired
+    private DashboardRollupRepository dashboardRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private volatile Rollups rollups = new Rollups();
+    private final Set<LocalDateTime> dirtyHours = ConcurrentHashMap.newKeySet();
+    // Recording takes the read side; only starting and finishing a rebuild take the write side
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Non-null while a rebuild runs
+    private Queue<Delta> heldBack;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Queue<Delta> held = new ConcurrentLinkedQueue<>();
+        rebuildLock.writeLock().lock();
+        try {
+            if (heldBack != null) {
+                throw new IllegalStateException("Dashboard rollups are already being rebuilt");
+            }
+            heldBack = held;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        Rollups rebuilt = null;
+        try {
+            rebuilt = scan();
+        } finally {
+            rebuildLock.writeLock().lock();
+            try {
+                heldBack = null;
+                if (rebuilt != null) {
+                    rollups = rebuilt;
+                    dirtyHours.clear();
+                }
+                // Onto the old counters if the scan failed
+                for (Delta delta : held) {
+                    dirtyHours.add(rollups.add(delta));
+                }
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DashboardRollup> rows = new ArrayList<>(rebuilt.hourly.size());
+        for (Map.Entry<LocalDateTime, Counters> hour : rebuilt.hourly.entrySet()) {
+            DashboardRollup row = new DashboardRollup();
+            row.setHourStart(hour.getKey());
+            hour.getValue().copyTo(row, now);
+            rows.add(row);
+        }
+        dashboardRollupRepository.deleteAllInBatch();
+        dashboardRollupRepository.saveAll(rows);
+        log.info("Rebuilt {} hourly dashboard rollups in {} ms, replaying {} changes made meanwhile",
+            rows.size(), System.currentTimeMillis() - start, held.size());
+    }
+
+    // Reads one snapshot of the tables: the queries share the rebuild's transaction
+    private Rollups scan() {
+        Rollups scanned = new Rollups();
+        for (HourlyCount placed : orderRepository.countPlacedByHour(Order.Status.CANCELLED)) {
+            scanned.add(new Delta(placed.getHour(), placed.getCount(), placed.getAmount(), 0, 0));
+        }
+        for (HourlyCount cancelled : orderRepository.countCancelledByHour(Order.Status.CANCELLED)) {
+            scanned.add(new Delta(cancelled.getHour(), 0, BigDecimal.ZERO, 0, cancelled.getCount()));
+        }
+        for (HourlyCount created : userRepository.countCreatedByHour()) {
+            scanned.add(new Delta(created.getHour(), 0, BigDecimal.ZERO, created.getCount(), 0));
+        }
+        return scanned;
+    }
+
+    /**
+     * Writes the hours changed since the last flush to the rollup table.
+     */
+    @Scheduled(fixedDelayString = "${app.rollups.flush-interval-ms:30000}", initialDelayString = "${app.rollups.flush-interval-ms:30000}")
+    @Transactional
+    public void flush() {
+        if (dirtyHours.isEmpty()) {
+            return;
+        }
+        List<LocalDateTime> hours = new ArrayList<>(dirtyHours);
+        dirtyHours.removeAll(hours);
+
+        Map<LocalDateTime, DashboardRollup> rows = new HashMap<>();
+        for (DashboardRollup row : dashboardRollupRepository.findAllById(hours)) {
+            rows.put(row.getHourStart(), row);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Rollups current = rollups;
+        for (LocalDateTime hour : hours) {
+            Counters counters = current.hourly.get(hour);
+            if (counters == null) {
+                continue;
+            }
+            DashboardRollup row = rows.computeIfAbsent(hour, h -> {
+                DashboardRollup created = new DashboardRollup();
+                created.setHourStart(h);
+                return created;
+            });
+            counters.copyTo(row, now);
+        }
+        dashboardRollupRepository.saveAll(rows.values());
+    }
+
+    public void orderPlaced(Order order) {
+        LocalDateTime createdAt = order.getCreatedAt();
+        BigDecimal total = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        AfterCommit.run(() -> record(createdAt, 1, total, 0, 0));
+    }
+
+    /**
+     * Moves the order's revenue out of the hour it was placed in and counts the
+     * cancellation in the hour it happened.
+     */
+    public void orderCancelled(Order order, LocalDateTime cancelledAt) {
+        LocalDateTime createdAt = order.getCreatedAt();
+        BigDecimal total = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        AfterCommit.run(() -> {
+            if (createdAt != null) {
+                record(createdAt, 0, total.negate(), 0, 0);
+            }
+            record(cancelledAt, 0, BigDecimal.ZERO, 0, 1);
+        });
+    }
+
+    public void userCreated(User user) {
+        LocalDateTime createdAt = user.getCreatedAt();
+        AfterCommit.run(() -> record(createdAt, 0, BigDecimal.ZERO, 1, 0));
+    }
+
+    public Map<String, Object> getDay(LocalDate day) {
+        Counters counters = rollups.daily.get(day);
+        Map<String, Object> result = counters != null ? counters.toMap() : new Counters().toMap();
+        result.put("date", day);
+        return result;
+    }
+
+    public List<Map<String, Object>> getDays(LocalDate from, LocalDate to) {
+        List<Map<String, Object>> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.add(getDay(day));
+        }
+        return days;
+    }
+
+    public List<Map<String, Object>> getHours(LocalDate day) {
+        Rollups current = rollups;
+        List<Map<String, Object>> hours = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            LocalDateTime hourStart = day.atTime(hour, 0);
+            Counters counters = current.hourly.get(hourStart);
+            Map<String, Object> result = counters != null ? counters.toMap() : new Counters().toMap();
+            result.put("hour", hourStart);
+            hours.add(result);
+        }
+        return hours;
+    }
+
+    public Map<String, Object> getTotals() {
+        return rollups.totals.toMap();
+    }
+
+    private void record(LocalDateTime at, long orders, BigDecimal revenue, long newUsers, long cancellations) {
+        if (at == null) {
+            return;
+        }
+        Delta delta = new Delta(at, orders, revenue, newUsers, cancellations);
+        rebuildLock.readLock().lock();
+        try {
+            if (heldBack != null) {
+                heldBack.add(delta);
+            } else {
+                dirtyHours.add(rollups.add(delta));
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private record Delta(LocalDateTime at, long orders, BigDecimal revenue, long newUsers, long cancellations) {
+    }
+
+    private static final class Rollups {
+        final Map<LocalDateTime, Counters> hourly = new ConcurrentHashMap<>();
+        final Map<LocalDate, Counters> daily = new ConcurrentHashMap<>();
+        final Counters totals = new Counters();
+
+        LocalDateTime add(Delta delta) {
+            LocalDateTime hour = delta.at().truncatedTo(ChronoUnit.HOURS);
+            hourly.computeIfAbsent(hour, h -> new Counters()).add(delta);
+            daily.computeIfAbsent(hour.toLocalDate(), d -> new Counters()).add(delta);
+            totals.add(delta);
+            return hour;
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder orders = new LongAdder();
+        final AtomicReference<BigDecimal> revenue = new AtomicReference<>(BigDecimal.ZERO);
+        final LongAdder newUsers = new LongAdder();
+        final LongAdder cancellations = new LongAdder();
+
+        void add(Delta delta) {
+            orders.add(delta.orders());
+            if (delta.revenue().signum() != 0) {
+                revenue.accumulateAndGet(delta.revenue(), BigDecimal::add);
+            }
+            newUsers.add(delta.newUsers());
+            cancellations.add(delta.cancellations());
+        }
+
+        void copyTo(DashboardRollup row, LocalDateTime now) {
+            row.setOrders(orders.sum());
+            row.setRevenue(revenue.get());
+            row.setNewUsers(newUsers.sum());
+            row.setCancellations(cancellations.sum());
+            row.setUpdatedAt(now);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("orders", orders.sum());
+            result.put("revenue", revenue.get());
+            result.put("newUsers", newUsers.sum());
+            result.put("cancellations", cancellations.sum());
+            return result;
+        }
+    }
+}
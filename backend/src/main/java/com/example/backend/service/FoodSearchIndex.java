@@ -0,0 +1,155 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.FoodItem;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over food item name, description and category name.
+ * Terms are kept sorted so a query token also matches every term it prefixes.
+ */
+public class FoodSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_PENALTY = 0.5f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // term -> (food item id -> field-weighted term frequency)
+    private final ConcurrentSkipListMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> termsByItem = new ConcurrentHashMap<>();
+
+    public void index(FoodItem item) {
+        remove(item.getId());
+
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, item.getName(), NAME_WEIGHT);
+        addTerms(weights, item.getDescription(), DESCRIPTION_WEIGHT);
+        if (item.getCategory() != null) {
+            addTerms(weights, item.getCategory().getName(), CATEGORY_WEIGHT);
+        }
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+                .put(item.getId(), entry.getValue());
+        }
+        termsByItem.put(item.getId(), Set.copyOf(weights.keySet()));
+    }
+
+    public void remove(Long id) {
+        Set<String> terms = termsByItem.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfPresent(term, (k, docs) -> {
+                docs.remove(id);
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+
+    public void indexAll(Collection<FoodItem> items) {
+        for (FoodItem item : items) {
+            index(item);
+        }
+    }
+
+    public int size() {
+        return termsByItem.size();
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Returns the ids of items matching every query token, best match first.
+     */
+    public List<Long> search(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        int documents = Math.max(1, termsByItem.size());
+        Map<Long, Float> scores = null;
+        for (String token : tokens) {
+            Map<Long, Float> tokenScores = scoreToken(token, documents);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<Long, Float> merged = new HashMap<>();
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    Float score = tokenScores.get(entry.getKey());
+                    if (score != null) {
+                        merged.put(entry.getKey(), entry.getValue() + score);
+                    }
+                }
+                scores = merged;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+            .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Float> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    private Map<Long, Float> scoreToken(String token, int documents) {
+        Map<Long, Float> scores = new HashMap<>();
+        ConcurrentNavigableMap<String, Map<Long, Float>> matches =
+            postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Long, Float>> term : matches.entrySet()) {
+            Map<Long, Float> docs = term.getValue();
+            float idf = (float) Math.log(1.0 + (double) documents / Math.max(1, docs.size()));
+            float factor = term.getKey().equals(token) ? idf : idf * PREFIX_PENALTY;
+            for (Map.Entry<Long, Float> doc : docs.entrySet()) {
+                // Best matching term per item, so short prefixes do not reward long descriptions
+                scores.merge(doc.getKey(), doc.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+}
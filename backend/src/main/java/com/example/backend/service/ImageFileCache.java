@@ -0,0 +1,113 @@
+package com.example.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the bytes of small, recently served images in memory, least recently used out
+ * first once the byte budget is spent. Thumbnails on the menu are requested far more
+ * often than anything else and are cheaper to copy from the heap than to open and send.
+ * Stored images never change under the same name, so entries only leave by eviction or
+ * when the collector deletes the file.
+ */
+@Service
+public class ImageFileCache {
+
+    private final long maxBytes;
+    private final long maxFileBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Path, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ImageFileCache(@Value("${app.images.cache.max-bytes:33554432}") long maxBytes,
+                          @Value("${app.images.cache.max-file-bytes:65536}") long maxFileBytes) {
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = Math.min(maxFileBytes, maxBytes);
+    }
+
+    /**
+     * The file's content if it is small enough to cache, loading it on a miss; null for
+     * larger files, which are streamed from disk instead.
+     */
+    public byte[] get(Path file, long size) throws IOException {
+        if (size > maxFileBytes) {
+            return null;
+        }
+        lock.lock();
+        try {
+            byte[] content = entries.get(file);
+            if (content != null) {
+                hits.increment();
+                return content;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        // Read outside the lock; two concurrent misses on one file both read it, which is harmless
+        byte[] content = Files.readAllBytes(file);
+        lock.lock();
+        try {
+            if (entries.putIfAbsent(file, content) == null) {
+                cachedBytes += content.length;
+                Iterator<byte[]> eldest = entries.values().iterator();
+                while (cachedBytes > maxBytes && eldest.hasNext()) {
+                    cachedBytes -= eldest.next().length;
+                    eldest.remove();
+                    evictions.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return content;
+    }
+
+    /**
+     * Drops every entry whose file name starts with prefix, i.e. an original and its variants.
+     */
+    public void evict(String prefix) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Path, byte[]>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Path, byte[]> entry = iterator.next();
+                if (entry.getKey().getFileName().toString().startsWith(prefix)) {
+                    cachedBytes -= entry.getValue().length;
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("entries", entries.size());
+            stats.put("bytes", cachedBytes);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("maxFileBytes", maxFileBytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
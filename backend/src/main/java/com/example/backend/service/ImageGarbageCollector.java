@@ -0,0 +1,178 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.CategoryRepository;
+import com.example.backend.repository.FoodItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes uploaded images that no food item or category points at any more. Reference
+ * counts are read from the image URLs in the database rather than kept alongside the
+ * files, so they cannot drift from what the catalog actually shows. Files uploaded or
+ * re-uploaded within the grace period are kept, since the admin screen uploads an
+ * image before the item that uses it is saved.
+ */
+@Service
+public class ImageGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    private final ImageUploadService imageUploadService;
+    private final ImageVariantService imageVariantService;
+    private final ImageFileCache imageFileCache;
+    private final FoodItemRepository foodItemRepository;
+    private final CategoryRepository categoryRepository;
+    private final Duration grace;
+    // Built from the same prefix the upload service gives out, so no referenced file looks unused
+    private final Pattern uploadUrl;
+
+    private final LongAdder collected = new LongAdder();
+    private final LongAdder collectedBytes = new LongAdder();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public ImageGarbageCollector(ImageUploadService imageUploadService, ImageVariantService imageVariantService,
+                                 ImageFileCache imageFileCache, FoodItemRepository foodItemRepository,
+                                 CategoryRepository categoryRepository,
+                                 @Value("${app.uploads.gc-grace-minutes:60}") long graceMinutes) {
+        this.imageUploadService = imageUploadService;
+        this.imageVariantService = imageVariantService;
+        this.imageFileCache = imageFileCache;
+        this.foodItemRepository = foodItemRepository;
+        this.categoryRepository = categoryRepository;
+        this.grace = Duration.ofMinutes(graceMinutes);
+        this.uploadUrl = Pattern.compile(Pattern.quote(imageUploadService.getUrlPrefix())
+            + "([A-Za-z0-9-]+\\.(?:jpg|png|gif|webp))");
+    }
+
+    /**
+     * Uploaded file name to the number of food items and categories using it.
+     */
+    public Map<String, Long> referenceCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        String urlPrefix = imageUploadService.getUrlPrefix();
+        addCounts(counts, foodItemRepository.countUploadedImageReferences(urlPrefix));
+        addCounts(counts, categoryRepository.countUploadedImageReferences(urlPrefix));
+        return counts;
+    }
+
+    /**
+     * Called when a food item or category stops using imageUrl, after the change is saved;
+     * the file goes straight away if nothing else uses it. Only references to this one file
+     * are looked up, not the whole reference count.
+     */
+    public void release(String imageUrl) {
+        String filename = filename(imageUrl);
+        if (filename == null) {
+            return;
+        }
+        try {
+            String url = imageUploadService.getUrlPrefix() + filename;
+            if (!foodItemRepository.existsByImageUrlContaining(url)
+                    && !categoryRepository.existsByImageUrlContaining(url)) {
+                delete(filename, Instant.now().minus(grace));
+            }
+        } catch (IOException | RuntimeException e) {
+            // The saved change stands; the scheduled pass will retry
+            log.warn("Could not remove unused image {}", filename, e);
+        }
+    }
+
+    @Scheduled(cron = "${app.uploads.gc-cron:0 45 3 * * *}")
+    public Map<String, Object> collect() {
+        long start = System.nanoTime();
+        Instant cutoff = Instant.now().minus(grace);
+        Map<String, Long> counts = referenceCounts();
+        int scanned = 0;
+        int deleted = 0;
+        long deletedBytes = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(imageUploadService.getDirectory())) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (!ImageVariantService.isOriginal(filename)) {
+                    continue;
+                }
+                scanned++;
+                if (!counts.containsKey(filename)) {
+                    long size = delete(filename, cutoff);
+                    if (size >= 0) {
+                        deleted++;
+                        deletedBytes += size;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Image collection stopped early", e);
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("finishedAt", Instant.now().toString());
+        run.put("scanned", scanned);
+        run.put("referenced", counts.size());
+        run.put("deleted", deleted);
+        run.put("deletedBytes", deletedBytes);
+        run.put("millis", (System.nanoTime() - start) / 1_000_000);
+        lastRun = run;
+        if (deleted > 0) {
+            log.info("Removed {} unused uploaded images ({} bytes)", deleted, deletedBytes);
+        }
+        return run;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("graceMinutes", grace.toMinutes());
+        stats.put("collected", collected.sum());
+        stats.put("collectedBytes", collectedBytes.sum());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    /**
+     * Bytes freed by removing the original, or -1 if it was kept or already gone.
+     */
+    private long delete(String filename, Instant cutoff) throws IOException {
+        Path file = imageUploadService.getDirectory().resolve(filename);
+        long size = Files.isRegularFile(file) ? Files.size(file) : 0;
+        if (!imageUploadService.deleteIfUnchangedSince(filename, cutoff)) {
+            return -1;
+        }
+        imageVariantService.deleteVariants(file);
+        imageFileCache.evict(filename.substring(0, filename.lastIndexOf('.')));
+        collected.increment();
+        collectedBytes.add(size);
+        return size;
+    }
+
+    private void addCounts(Map<String, Long> counts, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String filename = filename((String) row[0]);
+            if (filename != null) {
+                counts.merge(filename, ((Number) row[1]).longValue(), Long::sum);
+            }
+        }
+    }
+
+    private String filename(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = uploadUrl.matcher(imageUrl);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
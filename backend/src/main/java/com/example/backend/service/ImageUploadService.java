@@ -0,0 +1,606 @@
+package com.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Stores uploaded images by streaming request bodies straight into a file channel under
+ * a partial directory, then moving them into place once they are complete. Nothing is
+ * buffered in memory beyond the channel's transfer buffer, the size limit is enforced
+ * while bytes arrive, and the type is taken from the file's magic bytes rather than
+ * from whatever name or content type the client sent.
+ *
+ * <p>Files are named by the SHA-256 of their content, hashed as the bytes stream in, so
+ * uploading the same photo again returns the existing file instead of a copy.
+ *
+ * <p>Large images can also be sent in chunks through an upload session, so a dropped
+ * mobile connection resumes from the last stored offset instead of starting over.
+ * Sessions live in memory; partial files left by a restart are removed at startup.
+ */
+@Service
+public class ImageUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageUploadService.class);
+
+    private static final int SNIFF_BYTES = 12;
+    private static final String PARTIAL_DIRECTORY = ".partial";
+
+    public enum ImageType {
+        JPEG("jpg", "image/jpeg"),
+        PNG("png", "image/png"),
+        GIF("gif", "image/gif"),
+        WEBP("webp", "image/webp");
+
+        private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+        public final String extension;
+        public final String mediaType;
+
+        ImageType(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public static ImageType fromExtension(String extension) {
+            for (ImageType type : values()) {
+                if (type.extension.equalsIgnoreCase(extension)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The type whose signature starts the buffer, or null if none matches.
+         */
+        static ImageType sniff(ByteBuffer header) {
+            if (startsWith(header, 0, new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF})) {
+                return JPEG;
+            }
+            if (startsWith(header, 0, PNG_SIGNATURE)) {
+                return PNG;
+            }
+            if (startsWith(header, 0, ascii("GIF87a")) || startsWith(header, 0, ascii("GIF89a"))) {
+                return GIF;
+            }
+            if (startsWith(header, 0, ascii("RIFF")) && startsWith(header, 8, ascii("WEBP"))) {
+                return WEBP;
+            }
+            return null;
+        }
+
+        private static boolean startsWith(ByteBuffer buffer, int offset, byte[] signature) {
+            if (buffer.limit() < offset + signature.length) {
+                return false;
+            }
+            for (int i = 0; i < signature.length; i++) {
+                if (buffer.get(offset + i) != signature[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static byte[] ascii(String value) {
+            return value.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * An upload that was refused; the status tells the controller what to answer.
+     */
+    public static class UploadRejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final HttpStatus status;
+
+        public UploadRejectedException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+    }
+
+    public record StoredImage(String url, String contentType, long size) {
+    }
+
+    /**
+     * Published once an image has been moved into the upload directory.
+     */
+    public record ImageStored(Path path, ImageType type) {
+    }
+
+    /**
+     * Where a resumable upload stands; url is set once the last chunk has arrived.
+     */
+    public record UploadStatus(String id, long offset, long size, long maxChunkBytes, String url) {
+    }
+
+    private static final class UploadSession {
+        final String id;
+        final Long ownerId;
+        final long size;
+        final Path partial;
+        final ReentrantLock lock = new ReentrantLock();
+        long offset;
+        ImageType type;
+        // Null once a chunk failed part way; the finished file is then hashed from disk
+        MessageDigest digest = sha256();
+        volatile long lastActivityNanos = System.nanoTime();
+
+        UploadSession(String id, Long ownerId, long size, Path partial) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.size = size;
+            this.partial = partial;
+        }
+    }
+
+    private final Path directory;
+    private final Path partialDirectory;
+    private final String urlPrefix;
+    private final long maxBytes;
+    private final long maxChunkBytes;
+    private final long minFreeBytes;
+    private final int maxSessions;
+    private final Duration sessionTtl;
+    private final Semaphore streams;
+    private final int maxConcurrentStreams;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher events;
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder deduplicatedBytes = new LongAdder();
+    private final LongAdder deleted = new LongAdder();
+    // Publishing and deleting a file by name must not interleave
+    private final Object namespaceLock = new Object();
+    private final LongAdder rejectedTooLarge = new LongAdder();
+    private final LongAdder rejectedType = new LongAdder();
+    private final LongAdder rejectedBusy = new LongAdder();
+    private final LongAdder expiredSessions = new LongAdder();
+
+    public ImageUploadService(@Value("${app.uploads.dir:uploads}") String directory,
+                              @Value("${app.uploads.url-prefix:/uploads/}") String urlPrefix,
+                              @Value("${app.uploads.max-bytes:10485760}") long maxBytes,
+                              @Value("${app.uploads.max-chunk-bytes:1048576}") long maxChunkBytes,
+                              @Value("${app.uploads.min-free-bytes:104857600}") long minFreeBytes,
+                              @Value("${app.uploads.max-sessions:100}") int maxSessions,
+                              @Value("${app.uploads.session-ttl-minutes:60}") long sessionTtlMinutes,
+                              @Value("${app.uploads.max-concurrent:8}") int maxConcurrentStreams,
+                              ApplicationEventPublisher events) {
+        this.events = events;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.partialDirectory = this.directory.resolve(PARTIAL_DIRECTORY);
+        this.urlPrefix = urlPrefix.endsWith("/") ? urlPrefix : urlPrefix + "/";
+        this.maxBytes = maxBytes;
+        this.maxChunkBytes = Math.min(maxChunkBytes, maxBytes);
+        this.minFreeBytes = minFreeBytes;
+        this.maxSessions = maxSessions;
+        this.sessionTtl = Duration.ofMinutes(sessionTtlMinutes);
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        this.streams = new Semaphore(maxConcurrentStreams);
+        try {
+            Files.createDirectories(partialDirectory);
+            removeStalePartials();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare upload directory " + this.directory, e);
+        }
+        log.info("Storing uploads in {} (max {} bytes per image)", this.directory, maxBytes);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Path getPartialDirectory() {
+        return partialDirectory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // What stored image URLs start with, ending in a slash
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    /**
+     * Stores a whole image from a single request body. contentLength is -1 when the
+     * client did not declare one, e.g. with chunked transfer encoding.
+     */
+    public StoredImage store(InputStream body, long contentLength) throws IOException {
+        if (contentLength > maxBytes) {
+            throw tooLarge();
+        }
+        requireFreeSpace(contentLength > 0 ? contentLength : maxBytes);
+        acquireStream();
+        // The permit is released even if the partial file cannot be created, e.g. on a full disk
+        try {
+            Path partial = Files.createTempFile(partialDirectory, "upload-", ".part");
+            try {
+                ImageType type;
+                long size;
+                MessageDigest digest = sha256();
+                try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE);
+                     ReadableByteChannel source = new DigestingChannel(Channels.newChannel(body), digest)) {
+                    // Read just the signature first so a wrong file is refused before the rest arrives
+                    ByteBuffer header = ByteBuffer.allocate(SNIFF_BYTES);
+                    while (header.hasRemaining() && source.read(header) >= 0) {
+                    }
+                    header.flip();
+                    if (!header.hasRemaining()) {
+                        throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "File is empty");
+                    }
+                    type = requireImage(header);
+                    channel.write(header, 0);
+                    size = transfer(source, channel, header.limit(), maxBytes, this::tooLarge);
+                }
+                return publish(partial, type, size, digest.digest());
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        } finally {
+            streams.release();
+        }
+    }
+
+    public UploadStatus createSession(Long ownerId, long size) throws IOException {
+        if (size <= 0) {
+            throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "Upload size must be positive");
+        }
+        if (size > maxBytes) {
+            throw tooLarge();
+        }
+        if (sessions.size() >= maxSessions) {
+            rejectedBusy.increment();
+            throw new UploadRejectedException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress");
+        }
+        requireFreeSpace(size);
+        String id = UUID.randomUUID().toString();
+        Path partial = Files.createFile(partialDirectory.resolve(id + ".part"));
+        UploadSession session = new UploadSession(id, ownerId, size, partial);
+        sessions.put(id, session);
+        return status(session, null);
+    }
+
+    public UploadStatus getSession(Long ownerId, String id) {
+        UploadSession session = session(ownerId, id);
+        session.lock.lock();
+        try {
+            return status(session, null);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one chunk at offset, which must be where the previous chunk ended. Bytes
+     * that arrived before a dropped connection are kept, so the client asks for the
+     * session again and resumes from the offset it reports.
+     */
+    public UploadStatus appendChunk(Long ownerId, String id, long offset, InputStream body, long contentLength)
+            throws IOException {
+        UploadSession session = session(ownerId, id);
+        if (!session.lock.tryLock()) {
+            throw new UploadRejectedException(HttpStatus.CONFLICT, "Another chunk of this upload is being written");
+        }
+        try {
+            if (!sessions.containsKey(id)) {
+                throw new UploadRejectedException(HttpStatus.NOT_FOUND, "Upload not found");
+            }
+            if (offset != session.offset) {
+                throw new UploadRejectedException(HttpStatus.CONFLICT,
+                    "Upload is at offset " + session.offset + ", not " + offset);
+            }
+            long limit = Math.min(session.size, offset + maxChunkBytes);
+            if (contentLength > limit - offset) {
+                throw chunkTooLarge(limit - offset);
+            }
+            acquireStream();
+            ReadableByteChannel input = Channels.newChannel(body);
+            try (FileChannel channel = FileChannel.open(session.partial, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+                 ReadableByteChannel source = session.digest != null
+                     ? new DigestingChannel(input, session.digest) : input) {
+                boolean complete = false;
+                try {
+                    transfer(source, channel, offset, limit, () -> chunkTooLarge(limit - offset));
+                    complete = true;
+                } catch (UploadRejectedException e) {
+                    channel.truncate(offset);
+                    throw e;
+                } finally {
+                    if (!complete) {
+                        // The digest may have seen bytes that are not in the file
+                        session.digest = null;
+                    }
+                    session.offset = Math.min(channel.size(), limit);
+                    session.lastActivityNanos = System.nanoTime();
+                }
+                if (session.type == null && (session.offset >= SNIFF_BYTES || session.offset == session.size)) {
+                    ByteBuffer header = ByteBuffer.allocate(SNIFF_BYTES);
+                    channel.read(header, 0);
+                    header.flip();
+                    try {
+                        session.type = requireImage(header);
+                    } catch (UploadRejectedException e) {
+                        discard(session);
+                        throw e;
+                    }
+                }
+            } finally {
+                streams.release();
+            }
+            if (session.offset < session.size) {
+                return status(session, null);
+            }
+            sessions.remove(id);
+            try {
+                byte[] hash = session.digest != null ? session.digest.digest() : hash(session.partial);
+                return status(session, publish(session.partial, session.type, session.size, hash).url());
+            } finally {
+                Files.deleteIfExists(session.partial);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    public void cancelSession(Long ownerId, String id) throws IOException {
+        UploadSession session = session(ownerId, id);
+        session.lock.lock();
+        try {
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.uploads.sweep-interval-ms:60000}", initialDelayString = "${app.uploads.sweep-interval-ms:60000}")
+    public void expireSessions() {
+        long now = System.nanoTime();
+        for (UploadSession session : sessions.values()) {
+            // A session with a chunk in flight is not idle
+            if (now - session.lastActivityNanos > sessionTtl.toNanos() && session.lock.tryLock()) {
+                try {
+                    discard(session);
+                    expiredSessions.increment();
+                } catch (IOException e) {
+                    log.warn("Could not remove expired upload {}", session.partial, e);
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", directory.toString());
+        stats.put("maxBytes", maxBytes);
+        stats.put("maxChunkBytes", maxChunkBytes);
+        stats.put("activeStreams", maxConcurrentStreams - streams.availablePermits());
+        stats.put("maxConcurrentStreams", maxConcurrentStreams);
+        stats.put("openSessions", sessions.size());
+        stats.put("stored", stored.sum());
+        stats.put("storedBytes", storedBytes.sum());
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("deduplicatedBytes", deduplicatedBytes.sum());
+        stats.put("deleted", deleted.sum());
+        stats.put("rejectedTooLarge", rejectedTooLarge.sum());
+        stats.put("rejectedType", rejectedType.sum());
+        stats.put("rejectedBusy", rejectedBusy.sum());
+        stats.put("expiredSessions", expiredSessions.sum());
+        return stats;
+    }
+
+    /**
+     * Copies from source into the channel starting at position and returns the position
+     * reached. One byte past limit is requested so an oversized body is detected while it
+     * streams rather than after it has been written out in full.
+     */
+    private long transfer(ReadableByteChannel source, FileChannel channel, long position, long limit,
+                          Supplier<UploadRejectedException> tooLarge) throws IOException {
+        long transferred;
+        while ((transferred = channel.transferFrom(source, position, limit + 1 - position)) > 0) {
+            position += transferred;
+            if (position > limit) {
+                throw tooLarge.get();
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Deletes an uploaded file unless it was stored or uploaded again after cutoff, which
+     * keeps an image that is about to be attached to a dish from being collected.
+     */
+    public boolean deleteIfUnchangedSince(String filename, Instant cutoff) throws IOException {
+        Path path = directory.resolve(filename);
+        synchronized (namespaceLock) {
+            if (!Files.isRegularFile(path) || Files.getLastModifiedTime(path).toInstant().isAfter(cutoff)) {
+                return false;
+            }
+            Files.delete(path);
+        }
+        deleted.increment();
+        return true;
+    }
+
+    private StoredImage publish(Path partial, ImageType type, long size, byte[] hash) throws IOException {
+        String filename = HexFormat.of().formatHex(hash) + "." + type.extension;
+        Path path = directory.resolve(filename);
+        boolean created;
+        synchronized (namespaceLock) {
+            created = !Files.exists(path);
+            if (created) {
+                Files.move(partial, path, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                // Same content as a stored file; mark it as just uploaded so collection leaves it alone
+                Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            }
+        }
+        if (created) {
+            stored.increment();
+            storedBytes.add(size);
+            events.publishEvent(new ImageStored(path, type));
+        } else {
+            deduplicated.increment();
+            deduplicatedBytes.add(size);
+        }
+        return new StoredImage(urlPrefix + filename, type.mediaType, size);
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (ReadableByteChannel source = new DigestingChannel(Files.newByteChannel(file), digest)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (source.read(buffer) >= 0) {
+                buffer.clear();
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private ImageType requireImage(ByteBuffer header) {
+        ImageType type = ImageType.sniff(header);
+        if (type == null) {
+            rejectedType.increment();
+            throw new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                "Only JPEG, PNG, GIF and WebP images can be uploaded");
+        }
+        return type;
+    }
+
+    private UploadSession session(Long ownerId, String id) {
+        UploadSession session = sessions.get(id);
+        // Someone else's upload is reported as missing rather than forbidden
+        if (session == null || !session.ownerId.equals(ownerId)) {
+            throw new UploadRejectedException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        return session;
+    }
+
+    private UploadStatus status(UploadSession session, String url) {
+        return new UploadStatus(session.id, session.offset, session.size, maxChunkBytes, url);
+    }
+
+    private void discard(UploadSession session) throws IOException {
+        sessions.remove(session.id);
+        Files.deleteIfExists(session.partial);
+    }
+
+    private void acquireStream() {
+        if (!streams.tryAcquire()) {
+            rejectedBusy.increment();
+            throw new UploadRejectedException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress");
+        }
+    }
+
+    private void requireFreeSpace(long bytes) throws IOException {
+        if (Files.getFileStore(directory).getUsableSpace() < bytes + minFreeBytes) {
+            throw new UploadRejectedException(HttpStatus.INSUFFICIENT_STORAGE, "Not enough disk space for the upload");
+        }
+    }
+
+    private UploadRejectedException tooLarge() {
+        rejectedTooLarge.increment();
+        return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE,
+            "Images can be at most " + maxBytes + " bytes");
+    }
+
+    private UploadRejectedException chunkTooLarge(long remaining) {
+        rejectedTooLarge.increment();
+        return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE,
+            "This chunk can be at most " + remaining + " bytes");
+    }
+
+    private void removeStalePartials() throws IOException {
+        try (DirectoryStream<Path> partials = Files.newDirectoryStream(partialDirectory, "*.part")) {
+            for (Path partial : partials) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    /**
+     * Feeds everything read through it to a digest, so the hash is ready when the copy ends.
+     */
+    private static final class DigestingChannel implements ReadableByteChannel {
+        private final ReadableByteChannel delegate;
+        private final MessageDigest digest;
+
+        DigestingChannel(ReadableByteChannel delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            int start = destination.position();
+            int read = delegate.read(destination);
+            if (read > 0) {
+                ByteBuffer bytes = destination.duplicate();
+                bytes.limit(start + read).position(start);
+                digest.update(bytes);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
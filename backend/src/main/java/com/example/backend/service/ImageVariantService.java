@@ -0,0 +1,378 @@
+package com.example.backend.service;
+
+import com.example.backend.service.ImageUploadService.ImageStored;
+import com.example.backend.service.ImageUploadService.ImageType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Produces downscaled copies of uploaded images for list tiles and cards, stored next
+ * to the original as {@code <name>_w<width>.jpg} (or .png when the image has
+ * transparency). Work runs on a small low-priority pool with a bounded queue; uploads
+ * only enqueue, and an image whose variants are not ready yet is served at full size.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final Pattern ORIGINAL = Pattern.compile("[A-Za-z0-9-]+\\.(jpg|png|gif|webp)");
+    private static final Pattern VARIANT = Pattern.compile("([A-Za-z0-9-]+)_w(\\d+)\\.(jpg|png)");
+    private static final int MAX_RESOLVED = 10_000;
+
+    private final ImageUploadService imageUploadService;
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    // Originals already handled this run, including ones that could not be decoded
+    private final Set<String> processed = ConcurrentHashMap.newKeySet();
+    // Request name and width bucket to the file answering it, saving the existence checks
+    private final Map<String, ResolvedImage> resolved = new ConcurrentHashMap<>();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    public ImageVariantService(ImageUploadService imageUploadService,
+                               @Value("${app.images.variant-widths:160,320,640,1280}") int[] widths,
+                               @Value("${app.images.jpeg-quality:0.8}") float jpegQuality,
+                               @Value("${app.images.max-pixels:40000000}") long maxPixels,
+                               @Value("${app.images.variant-threads:1}") int threads,
+                               @Value("${app.images.variant-queue-capacity:256}") int queueCapacity) {
+        this.imageUploadService = imageUploadService;
+        this.widths = Arrays.stream(widths).filter(w -> w > 0).sorted().distinct().toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                // Resizing competes with request threads for CPU; let the requests win
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        // Decode and encode in memory rather than through ImageIO's temp-file cache
+        ImageIO.setUseCache(false);
+    }
+
+    @EventListener
+    public void onImageStored(ImageStored event) {
+        submit(event.path());
+    }
+
+    /**
+     * Queues originals that have no variants yet, e.g. uploads from before this existed
+     * or ones still queued when the server stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int queued = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(imageUploadService.getDirectory())) {
+            for (Path file : files) {
+                if (ORIGINAL.matcher(file.getFileName().toString()).matches() && !hasVariants(file)) {
+                    if (!submit(file)) {
+                        break;
+                    }
+                    queued++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan {} for images without variants", imageUploadService.getDirectory(), e);
+        }
+        if (queued > 0) {
+            log.info("Queued {} uploaded images for variant generation", queued);
+        }
+    }
+
+    /**
+     * A file chosen to answer a request. Stored files never change, so the answer is
+     * final unless it is the original standing in for a variant that is still queued.
+     */
+    public record ResolvedImage(Path file, long size, boolean provisional) {
+    }
+
+    /**
+     * The file to serve for an uploaded image displayed at about width pixels: the
+     * smallest variant at least that wide, else the original. Returns null for names
+     * that are not uploaded images, and for missing files.
+     */
+    public ResolvedImage resolve(String filename, Integer width) throws IOException {
+        boolean original = ORIGINAL.matcher(filename).matches();
+        if (!original && !VARIANT.matcher(filename).matches()) {
+            return null;
+        }
+        int smallest = original && width != null && width > 0 ? smallestCovering(width) : 0;
+        String key = filename + "@" + smallest;
+        ResolvedImage cached = resolved.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Path file = imageUploadService.getDirectory().resolve(filename);
+        boolean provisional = false;
+        if (smallest > 0) {
+            boolean done = processed.contains(filename);
+            for (int candidate : widths) {
+                Path variant = candidate >= smallest ? existingVariant(file, candidate) : null;
+                if (variant != null) {
+                    // Variants are written largest first, so a wider one may be all there is yet
+                    ResolvedImage image = new ResolvedImage(variant, Files.size(variant),
+                        candidate != smallest && !done);
+                    return image.provisional() ? image : remember(key, image);
+                }
+            }
+            // Not generated yet, or the original is narrower than every candidate
+            if (!done && Files.exists(file)) {
+                submit(file);
+                provisional = true;
+            }
+        }
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        ResolvedImage image = new ResolvedImage(file, Files.size(file), provisional);
+        return provisional ? image : remember(key, image);
+    }
+
+    public static boolean isOriginal(String filename) {
+        return ORIGINAL.matcher(filename).matches();
+    }
+
+    public void deleteVariants(Path original) throws IOException {
+        String name = original.getFileName().toString();
+        String base = name.substring(0, name.lastIndexOf('.'));
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(original.getParent(), base + "_w*")) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+        }
+        processed.remove(name);
+        resolved.keySet().removeIf(key -> key.startsWith(name + "@"));
+    }
+
+    public static ImageType typeOf(Path file) {
+        String name = file.getFileName().toString();
+        return ImageType.fromExtension(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = generated.sum();
+        stats.put("widths", widths);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("generated", count);
+        stats.put("failed", failed.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("averageMillis", count > 0 ? totalNanos.sum() / count / 1_000_000.0 : 0.0);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean submit(Path original) {
+        String filename = original.getFileName().toString();
+        if (!pending.add(filename)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(original);
+                } finally {
+                    processed.add(filename);
+                    pending.remove(filename);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // The image is served at full size until it is requested again or the next restart
+            pending.remove(filename);
+            dropped.increment();
+            return false;
+        }
+    }
+
+    private void generate(Path original) {
+        long start = System.nanoTime();
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                // No JDK decoder for this format (WebP); the original is always served
+                return;
+            }
+            ImageReader reader = readers.next();
+            BufferedImage source;
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxPixels) {
+                    log.warn("Not resizing {}: {}x{} exceeds {} pixels", original, sourceWidth, sourceHeight, maxPixels);
+                    failed.increment();
+                    return;
+                }
+                int[] targets = Arrays.stream(widths).filter(w -> w < sourceWidth).toArray();
+                if (targets.length == 0) {
+                    return;
+                }
+                // Decoding every nth pixel keeps memory near the output size for large photos,
+                // while leaving at least twice the largest width for a clean downscale
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / (targets[targets.length - 1] * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+
+            boolean alpha = source.getColorModel().hasAlpha();
+            long originalSize = Files.size(original);
+            BufferedImage current = source;
+            int[] targets = Arrays.stream(widths).filter(w -> w < source.getWidth()).toArray();
+            // Largest first, each scaled from the previous one
+            for (int i = targets.length - 1; i >= 0; i--) {
+                int width = targets[i];
+                int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+                current = scale(current, width, height, alpha);
+                write(current, variantPath(original, width, alpha), alpha, originalSize);
+            }
+            generated.increment();
+            totalNanos.add(System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not generate variants of {}", original, e);
+        }
+    }
+
+    /**
+     * Halves repeatedly and then steps to the exact size, which keeps bilinear filtering
+     * from skipping source pixels the way a single large reduction does.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage current = image;
+        do {
+            int nextWidth = Math.max(width, current.getWidth() / 2);
+            int nextHeight = Math.max(height, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (current.getWidth() != width || current.getHeight() != height);
+        return current;
+    }
+
+    /**
+     * Writes the variant unless it comes out no smaller than the original, as flat
+     * graphics saved as PNG can; the original is served for that width instead.
+     */
+    private void write(BufferedImage image, Path target, boolean alpha, long originalSize) throws IOException {
+        Path temp = Files.createTempFile(imageUploadService.getPartialDirectory(), "variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName(alpha ? "png" : "jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if (!alpha) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(jpegQuality);
+                }
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            if (Files.size(temp) < originalSize) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private int smallestCovering(int width) {
+        for (int candidate : widths) {
+            if (candidate >= width) {
+                return candidate;
+            }
+        }
+        // Wider than every variant: the original is the answer
+        return 0;
+    }
+
+    private ResolvedImage remember(String key, ResolvedImage image) {
+        if (resolved.size() >= MAX_RESOLVED) {
+            resolved.clear();
+        }
+        resolved.put(key, image);
+        return image;
+    }
+
+    private boolean hasVariants(Path original) {
+        return widths.length == 0 || existingVariant(original, widths[0]) != null;
+    }
+
+    private static Path existingVariant(Path original, int width) {
+        for (boolean alpha : new boolean[] {false, true}) {
+            Path variant = variantPath(original, width, alpha);
+            if (Files.isRegularFile(variant)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    private static Path variantPath(Path original, int width, boolean alpha) {
+        String name = original.getFileName().toString();
+        String base = name.substring(0, name.lastIndexOf('.'));
+        return original.resolveSibling(base + "_w" + width + (alpha ? ".png" : ".jpg"));
+    }
+}
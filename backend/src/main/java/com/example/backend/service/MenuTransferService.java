@@ -0,0 +1,530 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk import and export of the menu as CSV or newline-delimited JSON. Imports parse one
+ * row at a time, resolve categories from a map loaded once, and insert in JDBC batches;
+ * exports are written straight from a forward-only result set. Memory stays flat however
+ * many rows go through.
+ */
+@Service
+public class MenuTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuTransferService.class);
+
+    private static final String[] CATEGORY_COLUMNS = {"id", "name", "description", "imageUrl", "active"};
+    private static final String[] FOOD_ITEM_COLUMNS = {"id", "name", "description", "price", "imageUrl",
+        "category", "categoryId", "stockQuantity", "available"};
+
+    private static final String INSERT_CATEGORY =
+        "INSERT INTO categories (name, description, image_url, active) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_FOOD_ITEM =
+        "INSERT INTO food_items (name, description, price, image_url, category_id, available, stock_quantity, " +
+        "average_rating, rating_count, rating_sum) VALUES (?, ?, ?, ?, ?, ?, ?, 0.0, 0, 0)";
+    private static final String SELECT_CATEGORIES =
+        "SELECT id, name, description, image_url, active FROM categories ORDER BY id";
+    private static final String SELECT_FOOD_ITEMS =
+        "SELECT f.id, f.name, f.description, f.price, f.image_url, c.name, f.category_id, f.stock_quantity, " +
+        "f.available FROM food_items f LEFT JOIN categories c ON c.id = f.category_id ORDER BY f.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CatalogCache catalogCache;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxRowChars;
+    private final int fetchSize;
+
+    public MenuTransferService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper, CatalogCache catalogCache,
+                               @Value("${app.menu.import.batch-size:500}") int batchSize,
+                               @Value("${app.menu.import.max-errors:100}") int maxErrors,
+                               @Value("${app.menu.import.max-row-chars:65536}") int maxRowChars,
+                               @Value("${app.menu.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.catalogCache = catalogCache;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxRowChars = maxRowChars;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Adds the categories in input. Names already on the menu, or repeated in the input,
+     * are reported as failed rows rather than imported twice.
+     */
+    public ImportResult importCategories(Reader input, TransferFormat format) throws IOException {
+        Set<String> names = new HashSet<>();
+        jdbcTemplate.query("SELECT name FROM categories",
+            (RowCallbackHandler) rs -> names.add(key(rs.getString(1))));
+
+        return importRows(input, format, INSERT_CATEGORY, row -> {
+            String name = text(row, "name", 100, true);
+            String description = text(row, "description", 500, false);
+            String imageUrl = text(row, "imageUrl", 255, false);
+            Boolean active = flag(row, "active");
+            if (!names.add(key(name))) {
+                throw new IllegalArgumentException("Category '" + name + "' already exists");
+            }
+            return new Object[] {name, description, imageUrl, active};
+        });
+    }
+
+    /**
+     * Adds the food items in input. A row names its category by name (category) or id
+     * (categoryId); names are what an export from another branch carries, so they win.
+     */
+    public ImportResult importFoodItems(Reader input, TransferFormat format) throws IOException {
+        Map<String, Long> categoriesByName = new HashMap<>();
+        Set<Long> categoryIds = new HashSet<>();
+        jdbcTemplate.query("SELECT id, name FROM categories", (RowCallbackHandler) rs -> {
+            categoriesByName.putIfAbsent(key(rs.getString(2)), rs.getLong(1));
+            categoryIds.add(rs.getLong(1));
+        });
+
+        return importRows(input, format, INSERT_FOOD_ITEM, row -> {
+            String name = text(row, "name", 100, true);
+            String description = text(row, "description", 1000, false);
+            BigDecimal price = price(row);
+            String imageUrl = text(row, "imageUrl", 255, false);
+            Long categoryId = category(row, categoriesByName, categoryIds);
+            Integer stockQuantity = stockQuantity(row);
+            Boolean available = flag(row, "available");
+            return new Object[] {name, description, price, imageUrl, categoryId, available, stockQuantity};
+        });
+    }
+
+    public void exportCategories(Writer output, TransferFormat format) throws IOException {
+        export(output, format, SELECT_CATEGORIES, CATEGORY_COLUMNS);
+    }
+
+    public void exportFoodItems(Writer output, TransferFormat format) throws IOException {
+        export(output, format, SELECT_FOOD_ITEMS, FOOD_ITEM_COLUMNS);
+    }
+
+    private ImportResult importRows(Reader input, TransferFormat format, String insert,
+                                    Function<Map<String, String>, Object[]> convert) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportResult result = new ImportResult(maxErrors);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        List<Long> lines = new ArrayList<>(batchSize);
+
+        try {
+            Iterator<Row> rows = format == TransferFormat.CSV ? new CsvRows(input, maxRowChars) : new NdjsonRows(input);
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                if (row.error() != null) {
+                    result.rowFailed(row.line(), row.error());
+                    continue;
+                }
+                try {
+                    batch.add(convert.apply(row.values()));
+                    lines.add(row.line());
+                } catch (IllegalArgumentException e) {
+                    result.rowFailed(row.line(), e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    insert(insert, batch, lines, result);
+                }
+            }
+        } catch (UnreadableInputException e) {
+            result.stopped(e.line, e.getMessage());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        insert(insert, batch, lines, result);
+
+        if (result.getImported() > 0) {
+            catalogCache.invalidate();
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Menu import: {} rows imported, {} failed in {} ms", result.getImported(), result.getFailed(),
+            result.getElapsedMillis());
+        return result;
+    }
+
+    private void insert(String insert, List<Object[]> batch, List<Long> lines, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(insert, batch));
+            result.rowsImported(batch.size());
+        } catch (DataAccessException e) {
+            // The batch was rolled back; insert its rows one by one to find the ones the database refuses
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    jdbcTemplate.update(insert, batch.get(i));
+                    result.rowsImported(1);
+                } catch (DataAccessException rowError) {
+                    result.rowFailed(lines.get(i), String.valueOf(rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    private void export(Writer output, TransferFormat format, String query, String[] columns) throws IOException {
+        RowWriter writer = RowWriter.open(output, format, objectMapper);
+        writer.header(columns);
+        Object[] values = new Object[columns.length];
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(query,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                // With useCursorFetch MySQL sends the rows fetchSize at a time instead of all at once
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (RowCallbackHandler) rs -> {
+                for (int i = 0; i < columns.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                try {
+                    writer.row(columns, values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String text(Map<String, String> row, String column, int maxLength, boolean required) {
+        String value = row.get(key(column));
+        if (value == null || value.isBlank()) {
+            if (required) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " must not exceed " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    // Missing means true, as on the admin forms
+    private static Boolean flag(Map<String, String> row, String column) {
+        String value = text(row, column, 10, false);
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException(column + " must be true or false");
+        };
+    }
+
+    private static BigDecimal price(Map<String, String> row) {
+        String value = text(row, "price", 20, true);
+        try {
+            BigDecimal price = new BigDecimal(value);
+            if (price.compareTo(new BigDecimal("0.01")) < 0) {
+                throw new IllegalArgumentException("price must be greater than 0");
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + value);
+        }
+    }
+
+    private static Integer stockQuantity(Map<String, String> row) {
+        String value = text(row, "stockQuantity", 10, false);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            int quantity = Integer.parseInt(value);
+            if (quantity < 0) {
+                throw new IllegalArgumentException("stockQuantity cannot be negative");
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("stockQuantity is not a whole number: " + value);
+        }
+    }
+
+    private static Long category(Map<String, String> row, Map<String, Long> byName, Set<Long> ids) {
+        String name = text(row, "category", 255, false);
+        if (name != null) {
+            Long id = byName.get(key(name));
+            if (id == null) {
+                throw new IllegalArgumentException("Category '" + name + "' not found");
+            }
+            return id;
+        }
+        String id = text(row, "categoryId", 20, false);
+        if (id == null) {
+            throw new IllegalArgumentException("category or categoryId is required");
+        }
+        try {
+            Long categoryId = Long.valueOf(id);
+            if (!ids.contains(categoryId)) {
+                throw new IllegalArgumentException("Category " + id + " not found");
+            }
+            return categoryId;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("categoryId is not a number: " + id);
+        }
+    }
+
+    // One input row: its values by lower-cased column name, or why it could not be read
+    private record Row(long line, Map<String, String> values, String error) {}
+
+    // Input that cannot be read any further, e.g. a quote that is never closed
+    private static class UnreadableInputException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final long line;
+
+        UnreadableInputException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+    }
+
+    /**
+     * RFC 4180 records: the first is the header, fields may be quoted and quoted fields may
+     * span lines. A record longer than maxChars stops the import, since where it ends can
+     * no longer be trusted.
+     */
+    private static class CsvRows implements Iterator<Row> {
+        private final Reader input;
+        private final int maxChars;
+        private final String[] header;
+        private long line = 1;
+        private int pushedBack = -2;
+        private Row next;
+
+        CsvRows(Reader input, int maxChars) {
+            this.input = input;
+            this.maxChars = maxChars;
+            List<String> fields = readRecord();
+            if (fields == null) {
+                this.header = new String[0];
+                return;
+            }
+            // Spreadsheet programs start UTF-8 files with a byte order mark
+            if (!fields.isEmpty() && fields.get(0).startsWith("\uFEFF")) {
+                fields.set(0, fields.get(0).substring(1));
+            }
+            this.header = fields.stream().map(MenuTransferService::key).toArray(String[]::new);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && header.length > 0) {
+                long start = line;
+                List<String> fields = readRecord();
+                if (fields == null) {
+                    return false;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                if (fields.size() != header.length) {
+                    next = new Row(start, null, "Expected " + header.length + " fields, found " + fields.size());
+                } else {
+                    Map<String, String> values = new HashMap<>();
+                    for (int i = 0; i < header.length; i++) {
+                        values.put(header[i], fields.get(i).isEmpty() ? null : fields.get(i));
+                    }
+                    next = new Row(start, values, null);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            hasNext();
+            Row row = next;
+            next = null;
+            return row;
+        }
+
+        private List<String> readRecord() {
+            long start = line;
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            int length = 0;
+            boolean quoted = false;
+            while (true) {
+                if (++length > maxChars) {
+                    throw new UnreadableInputException(start, "Row is longer than " + maxChars + " characters");
+                }
+                if (quoted) {
+                    if (c == -1) {
+                        throw new UnreadableInputException(start, "Quoted field is never closed");
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following != '"') {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            pushedBack = following;
+                        }
+                    }
+                    if (c != -1) {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            try {
+                return input.read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * One JSON object per line. A line that is not a JSON object only fails that row.
+     */
+    private class NdjsonRows implements Iterator<Row> {
+        private final Reader input;
+        private final StringBuilder text = new StringBuilder();
+        private long line;
+        private boolean ended;
+        private Row next;
+
+        NdjsonRows(Reader input) {
+            this.input = input;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !ended) {
+                line++;
+                boolean tooLong = readLine();
+                if (tooLong) {
+                    next = new Row(line, null, "Row is longer than " + maxRowChars + " characters");
+                } else if (!text.toString().isBlank()) {
+                    next = parse();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Row next() {
+            hasNext();
+            Row row = next;
+            next = null;
+            return row;
+        }
+
+        private Row parse() {
+            try {
+                JsonNode node = objectMapper.readTree(text.toString());
+                if (node == null || !node.isObject()) {
+                    return new Row(line, null, "Expected a JSON object");
+                }
+                Map<String, String> values = new HashMap<>();
+                node.fields().forEachRemaining(field -> values.put(key(field.getKey()),
+                    field.getValue().isNull() ? null : field.getValue().asText()));
+                return new Row(line, values, null);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        // Reads up to the next newline into text; a line over the limit is skipped, not kept
+        private boolean readLine() {
+            text.setLength(0);
+            boolean tooLong = false;
+            try {
+                int c;
+                while ((c = input.read()) != '\n') {
+                    if (c == -1) {
+                        ended = true;
+                        break;
+                    }
+                    if (text.length() >= maxRowChars) {
+                        tooLong = true;
+                        text.setLength(0);
+                    }
+                    if (!tooLong) {
+                        text.append((char) c);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return tooLong;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderEventFeed;
+import com.example.backend.dto.OrderEventFeed.Cursor;
+import com.example.backend.dto.OrderStatusEvent;
+import com.example.backend.entity.Order;
+import com.example.backend.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The recent order events (placed, status changed, cancelled) in a fixed-size ring,
+ * numbered by an increasing sequence, so kitchen screens can ask for everything after
+ * the last event they saw instead of reloading every order. Appending never locks: a
+ * writer claims a sequence with one atomic increment, fills its slot, and moves the
+ * published mark past every slot that is filled. A reader that falls further behind
+ * than the ring holds is caught up from the orders table, one bounded page at a time.
+ */
+@Service
+public class OrderEventLog {
+
+    private final OrderRepository orderRepository;
+    private final AtomicReferenceArray<OrderStatusEvent> slots;
+    private final int mask;
+    private final Duration catchUpOverlap;
+    // Sequences restart with the process; cursors from an earlier run are caught up from the database
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    // Highest sequence below which every slot is filled; readers never look past it
+    private final AtomicLong published = new AtomicLong(0);
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder catchUps = new LongAdder();
+
+    public OrderEventLog(OrderRepository orderRepository,
+                         @Value("${app.orders.feed.capacity:4096}") int capacity,
+                         @Value("${app.orders.feed.catch-up-overlap-ms:5000}") long catchUpOverlapMs) {
+        this.orderRepository = orderRepository;
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1));
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.catchUpOverlap = Duration.ofMillis(catchUpOverlapMs);
+    }
+
+    /**
+     * Records a change to an order and returns it with its sequence number. Called once the
+     * change is committed, so the catch-up query always sees what the log has dropped.
+     */
+    public OrderStatusEvent append(OrderStatusEvent.Type type, Order order) {
+        long sequence = nextSequence.getAndIncrement();
+        OrderStatusEvent event = new OrderStatusEvent(sequence, type, order.getId(), order.getUser().getId(),
+            order.getStatus(), order.getUpdatedAt());
+        slots.set(index(sequence), event);
+
+        // Whichever writer finishes last publishes the run of filled slots, including other writers'
+        while (true) {
+            long mark = published.get();
+            OrderStatusEvent next = slots.get(index(mark + 1));
+            if (next == null || next.getSequence() <= mark) {
+                break;
+            }
+            published.compareAndSet(mark, mark + 1);
+        }
+        return event;
+    }
+
+    /**
+     * Up to limit events after cursor, oldest first, with the cursor to continue from. A
+     * null cursor starts at the end of the log. Readers the log has moved past get the
+     * orders changed since their last event instead, read from the database.
+     */
+    public OrderEventFeed read(Cursor cursor, int limit) {
+        reads.increment();
+        if (cursor == null) {
+            return new OrderEventFeed(List.of(), OrderEventFeed.encodeCursor(
+                new Cursor(epoch, published.get(), LocalDateTime.now(), 0)), false);
+        }
+        if (cursor.epoch() == epoch && cursor.sequence() >= 0) {
+            List<OrderStatusEvent> events = readAfter(cursor.sequence(), limit);
+            if (events != null) {
+                String next = events.isEmpty() ? OrderEventFeed.encodeCursor(cursor)
+                    : cursorOf(events.get(events.size() - 1));
+                return new OrderEventFeed(events, next, events.size() == limit);
+            }
+        }
+        return catchUp(cursor, limit);
+    }
+
+    /**
+     * Events after the given sequence up to the published mark, at most limit of them, or
+     * null if the log no longer holds them all.
+     */
+    public List<OrderStatusEvent> readAfter(long after, int limit) {
+        long head = published.get();
+        if (after > head) {
+            return null;
+        }
+        long last = Math.min(head, after + limit);
+        List<OrderStatusEvent> events = new ArrayList<>((int) Math.max(0, last - after));
+        for (long sequence = after + 1; sequence <= last; sequence++) {
+            OrderStatusEvent event = slots.get(index(sequence));
+            if (event == null || event.getSequence() != sequence) {
+                return null;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    // Every event up to here is readable
+    public long head() {
+        return published.get();
+    }
+
+    /**
+     * The cursor that resumes a feed just after event.
+     */
+    public String cursorOf(OrderStatusEvent event) {
+        if (event.getSequence() != null) {
+            return OrderEventFeed.encodeCursor(new Cursor(epoch, event.getSequence(), event.getUpdatedAt(), 0));
+        }
+        return OrderEventFeed.encodeCursor(new Cursor(epoch, -1, event.getUpdatedAt(), event.getOrderId()));
+    }
+
+    public Map<String, Object> getStats() {
+        long head = published.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("epoch", epoch);
+        stats.put("capacity", slots.length());
+        stats.put("published", head);
+        stats.put("oldest", Math.max(1, head - slots.length() + 1));
+        stats.put("reads", reads.sum());
+        stats.put("catchUps", catchUps.sum());
+        return stats;
+    }
+
+    private OrderEventFeed catchUp(Cursor cursor, int limit) {
+        catchUps.increment();
+        // Taken before the query: later events are read from the log, earlier ones are in the rows
+        long head = published.get();
+        boolean resuming = cursor.epoch() == epoch && cursor.sequence() < 0;
+        // Changes commit in a different order than their timestamps, so a cursor's time is only approximate
+        LocalDateTime since = resuming ? cursor.since() : cursor.since().minus(catchUpOverlap);
+        long afterId = resuming ? cursor.afterId() : 0;
+
+        List<OrderStatusEvent> rows = orderRepository.findChangedSince(since, afterId, Limit.of(limit + 1));
+        if (rows.size() > limit) {
+            List<OrderStatusEvent> page = rows.subList(0, limit);
+            return new OrderEventFeed(page, cursorOf(page.get(limit - 1)), true);
+        }
+        LocalDateTime until = rows.isEmpty() ? cursor.since() : rows.get(rows.size() - 1).getUpdatedAt();
+        return new OrderEventFeed(rows, OrderEventFeed.encodeCursor(new Cursor(epoch, head, until, 0)), false);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+}
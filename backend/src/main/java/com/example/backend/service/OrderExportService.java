@@ -0,0 +1,169 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Order lines for accounting, written to the response as they come off a forward-only
+ * cursor. Only one row is held at a time, so a year of orders takes the same heap as a
+ * day; the cost is a database connection held for the whole export, so only a few may
+ * run at once.
+ */
+@Service
+public class OrderExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExportService.class);
+
+    // One row per order line; an order without lines still gets one row
+    private static final String[] COLUMNS = {"orderId", "createdAt", "updatedAt", "status", "orderType",
+        "paymentMethod", "userId", "customerEmail", "couponCode", "subtotal", "discountAmount", "totalAmount",
+        "foodItemId", "foodItemName", "quantity", "price"};
+    private static final int CREATED_AT = 1;
+    private static final int UPDATED_AT = 2;
+
+    // Ordered by the (created_at, id) index, so the database streams rows without sorting the range first
+    private static final String SELECT =
+        "SELECT o.id, o.created_at, o.updated_at, o.status, o.order_type, o.payment_method, u.id, u.email, " +
+        "c.code, o.subtotal, o.discount_amount, o.total_amount, f.id, f.name, i.quantity, i.price " +
+        "FROM orders o LEFT JOIN users u ON u.id = o.user_id LEFT JOIN coupons c ON c.id = o.coupon_id " +
+        "LEFT JOIN order_items i ON i.order_id = o.id LEFT JOIN food_items f ON f.id = i.food_item_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int flushRows;
+    private final int maxConcurrent;
+    private final Semaphore running;
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder rejectedBusy = new LongAdder();
+
+    public OrderExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                              @Value("${app.orders.export.fetch-size:1000}") int fetchSize,
+                              @Value("${app.orders.export.flush-rows:1000}") int flushRows,
+                              @Value("${app.orders.export.max-concurrent:2}") int maxConcurrent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.flushRows = flushRows;
+        this.maxConcurrent = maxConcurrent;
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    public static class ExportBusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ExportBusyException() {
+            super("Too many order exports in progress");
+        }
+    }
+
+    /**
+     * Writes the lines of orders placed in [from, to), oldest first, optionally only those
+     * with the given status. Throws ExportBusyException, before writing anything, when the
+     * limit of concurrent exports is reached.
+     */
+    public void export(OutputStream output, TransferFormat format, boolean gzip, Order.Status status,
+                       LocalDateTime from, LocalDateTime to) throws IOException {
+        if (!running.tryAcquire()) {
+            rejectedBusy.increment();
+            throw new ExportBusyException();
+        }
+        long start = System.currentTimeMillis();
+        long[] written = {0};
+        try {
+            // Sync flush, so each flush below sends whole rows instead of waiting for the deflater
+            OutputStream target = gzip ? new GZIPOutputStream(output, 8192, true) : output;
+            Writer writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+            RowWriter rowWriter = RowWriter.open(writer, format, objectMapper);
+            rowWriter.header(COLUMNS);
+
+            StringBuilder query = new StringBuilder(SELECT).append(" WHERE 1 = 1");
+            List<Object> args = new ArrayList<>();
+            if (status != null) {
+                query.append(" AND o.status = ?");
+                args.add(status.name());
+            }
+            if (from != null) {
+                query.append(" AND o.created_at >= ?");
+                args.add(from);
+            }
+            if (to != null) {
+                query.append(" AND o.created_at < ?");
+                args.add(to);
+            }
+            query.append(" ORDER BY o.created_at, o.id");
+
+            Object[] values = new Object[COLUMNS.length];
+            try {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(query.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    // With useCursorFetch MySQL sends the rows fetchSize at a time instead of all at once
+                    statement.setFetchSize(fetchSize);
+                    for (int i = 0; i < args.size(); i++) {
+                        statement.setObject(i + 1, args.get(i));
+                    }
+                    return statement;
+                }, (RowCallbackHandler) rs -> {
+                    for (int i = 0; i < COLUMNS.length; i++) {
+                        values[i] = i == CREATED_AT || i == UPDATED_AT
+                            ? rs.getObject(i + 1, LocalDateTime.class) : rs.getObject(i + 1);
+                    }
+                    try {
+                        rowWriter.row(COLUMNS, values);
+                        if (++written[0] % flushRows == 0) {
+                            rowWriter.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            rowWriter.flush();
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+            exports.increment();
+        } finally {
+            rows.add(written[0]);
+            running.release();
+            log.info("Order export: {} rows in {} ms", written[0], System.currentTimeMillis() - start);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", maxConcurrent - running.availablePermits());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("exports", exports.sum());
+        stats.put("rows", rows.sum());
+        stats.put("rejectedBusy", rejectedBusy.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out order and order line ids from blocks reserved in the id_generators table,
+ * so orders and their lines can be inserted as JDBC batches. Ids must be taken before
+ * the placing transaction opens: reserving a block uses a connection of its own, and
+ * waiting for one while holding another starves the pool once every connection does.
+ */
+@Component
+public class OrderIdAllocator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Injected so the schema (including orders and order_items) exists before alignment
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.orders.id-block-size:100}")
+    private int blockSize;
+
+    private final Sequence orders = new Sequence("orders", "orders");
+    private final Sequence orderItems = new Sequence("order_items", "order_items");
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_generators " +
+            "(sequence_name VARCHAR(255) NOT NULL PRIMARY KEY, next_val BIGINT)");
+        orders.align();
+        orderItems.align();
+    }
+
+    public long nextOrderId() {
+        return orders.next(1)[0];
+    }
+
+    public long[] nextOrderItemIds(int count) {
+        return orderItems.next(count);
+    }
+
+    private final class Sequence {
+        private final String name;
+        private final String table;
+        // A lock rather than synchronized: refilling runs JDBC while holding it, which would pin a virtual thread
+        private final ReentrantLock lock = new ReentrantLock();
+        private long nextId;
+        private long lastId = -1;
+
+        Sequence(String name, String table) {
+            this.name = name;
+            this.table = table;
+        }
+
+        long[] next(int count) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw new IllegalStateException("Order ids must be taken before the transaction opens");
+            }
+            long[] ids = new long[count];
+            lock.lock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    if (nextId > lastId) {
+                        reserveBlock();
+                    }
+                    ids[i] = nextId++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return ids;
+        }
+
+        // The stored value is the last id reserved by any instance; this one takes the next block after it
+        private void reserveBlock() {
+            Long last = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("UPDATE id_generators SET next_val = next_val + ? WHERE sequence_name = ?",
+                    blockSize, name);
+                return jdbcTemplate.queryForObject("SELECT next_val FROM id_generators WHERE sequence_name = ?",
+                    Long.class, name);
+            });
+            nextId = last - blockSize + 1;
+            lastId = last;
+        }
+
+        // Moves the stored value past ids already in use, e.g. rows inserted with auto-increment
+        // ids or by Hibernate's pooled table generator, which never issued ids above it
+        void align() {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM id_generators WHERE sequence_name = ?", Integer.class, name);
+            if (rows == 0) {
+                jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", name, maxId);
+            } else {
+                jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                    maxId, name, maxId);
+            }
+        }
+    }
+}
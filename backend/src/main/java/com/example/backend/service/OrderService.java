@@ -0,0 +1,213 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderDetails;
+import com.example.backend.dto.OrderStatusEvent;
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.OrderItem;
+import com.example.backend.entity.User;
+import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class OrderService {
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    @Autowired
+    private StockReservationService stockReservationService;
+    
+    @Autowired
+    private CouponService couponService;
+    
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+    
+    @Autowired
+    private OrderEventLog orderEventLog;
+    
+    @Autowired
+    private OrderStatusBroadcaster orderStatusBroadcaster;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private OrderIdAllocator orderIdAllocator;
+    
+    /**
+     * Places an order priced from current food item prices. Lines are loaded with a
+     * single lookup and the order and its items are inserted as JDBC batches. The new
+     * order is added to the order event log once committed.
+     *
+     * @param quantities food item id to ordered quantity, in line order
+     */
+    public Order placeOrder(Long userId, Map<Long, Integer> quantities, Order.OrderType orderType,
+                            Order.PaymentMethod paymentMethod, String deliveryAddress, String notes,
+                            String couponCode) {
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+        // Taken before the transaction opens: reserving a new block of ids needs a connection of its own
+        long orderId = orderIdAllocator.nextOrderId();
+        long[] itemIds = orderIdAllocator.nextOrderItemIds(quantities.size());
+        return transactionTemplate.execute(status -> place(orderId, itemIds, userId, quantities, orderType,
+            paymentMethod, deliveryAddress, notes, couponCode));
+    }
+    
+    private Order place(long orderId, long[] itemIds, Long userId, Map<Long, Integer> quantities,
+                        Order.OrderType orderType, Order.PaymentMethod paymentMethod, String deliveryAddress,
+                        String notes, String couponCode) {
+        // A reference is all the order row needs; loading the user would only add it to the flush
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        User user = userRepository.getReferenceById(userId);
+        
+        Map<Long, FoodItem> foodItems = new HashMap<>();
+        for (FoodItem foodItem : foodItemRepository.findByIdIn(quantities.keySet())) {
+            foodItems.put(foodItem.getId(), foodItem);
+        }
+        
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUser(user);
+        if (orderType != null) order.setOrderType(orderType);
+        if (paymentMethod != null) order.setPaymentMethod(paymentMethod);
+        order.setDeliveryAddress(deliveryAddress);
+        order.setNotes(notes);
+        
+        BigDecimal subtotal = priceItems(order, quantities, foodItems);
+        for (int i = 0; i < itemIds.length; i++) {
+            order.getItems().get(i).setId(itemIds[i]);
+        }
+        order.setSubtotal(subtotal);
+        order.setTotalAmount(subtotal);
+        // Reserved below; if the reservation fails the whole order rolls back
+        order.setStockReserved(true);
+        
+        Order saved = orderRepository.save(order);
+        stockReservationService.reserve(quantities);
+        
+        if (couponCode != null && !couponCode.isBlank()) {
+            CouponService.Redemption redemption = couponService.redeem(couponCode, subtotal);
+            saved.setCoupon(redemption.coupon());
+            saved.setDiscountAmount(redemption.discount());
+            saved.setTotalAmount(subtotal.subtract(redemption.discount()));
+        }
+        
+        dashboardRollupService.orderPlaced(saved);
+        salesAnalyticsService.orderPlaced(saved);
+        AfterCommit.run(() -> orderStatusBroadcaster.publish(orderEventLog.append(OrderStatusEvent.Type.CREATED, saved)));
+        return saved;
+    }
+    
+    /**
+     * Adds a line per ordered food item at its current price and returns the subtotal.
+     * Throws IllegalArgumentException if an item is missing or unavailable.
+     */
+    public static BigDecimal priceItems(Order order, Map<Long, Integer> quantities, Map<Long, FoodItem> foodItems) {
+        List<OrderItem> items = new ArrayList<>(quantities.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            FoodItem foodItem = foodItems.get(line.getKey());
+            if (foodItem == null || !Boolean.TRUE.equals(foodItem.getAvailable())) {
+                throw new IllegalArgumentException("Food item " + line.getKey() + " is not available");
+            }
+            
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setFoodItem(foodItem);
+            item.setQuantity(line.getValue());
+            item.setPrice(foodItem.getPrice());
+            items.add(item);
+            
+            subtotal = subtotal.add(foodItem.getPrice().multiply(BigDecimal.valueOf(line.getValue())));
+        }
+        order.setItems(items);
+        return subtotal;
+    }
+    
+    /**
+     * Moves an order to a new status, releasing its stock reservation when it is cancelled,
+     * and adds the change to the order event log and the owner's open streams once committed.
+     * Returns null if the order does not exist, and the order untouched if it already has the
+     * status. The status is changed with a conditional update, so of two concurrent changes
+     * only the first applies and releases anything; the other gets IllegalStateException.
+     */
+    @Transactional
+    public Order updateStatus(Long orderId, Order.Status status) {
+        Order order = orderRepository.findWithDetailsById(orderId).orElse(null);
+        if (order == null) {
+            return null;
+        }
+        if (order.getStatus() == Order.Status.CANCELLED && status != Order.Status.CANCELLED) {
+            throw new IllegalArgumentException("Cancelled orders cannot be reopened");
+        }
+        if (order.getStatus() == status) {
+            return order;
+        }
+        
+        boolean cancelling = status == Order.Status.CANCELLED;
+        boolean releasing = cancelling && Boolean.TRUE.equals(order.getStockReserved());
+        Boolean stockReserved = releasing ? Boolean.FALSE : order.getStockReserved();
+        LocalDateTime now = LocalDateTime.now();
+        // The only write of the row; it holds the row lock until commit, so a concurrent change
+        // waits here and then finds the status moved
+        if (orderRepository.transition(orderId, order.getStatus(), status, stockReserved, now) == 0) {
+            throw new IllegalStateException("Order " + orderId + " was changed by another request");
+        }
+        if (releasing) {
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (OrderItem item : order.getItems()) {
+                quantities.merge(item.getFoodItem().getId(), item.getQuantity(), Integer::sum);
+            }
+            stockReservationService.release(quantities);
+        }
+        if (cancelling && order.getCoupon() != null) {
+            couponService.release(order.getCoupon());
+        }
+        
+        // Detached by the transition, so these only bring the returned copy up to date
+        order.setStatus(status);
+        order.setUpdatedAt(now);
+        order.setStockReserved(stockReserved);
+        if (cancelling) {
+            dashboardRollupService.orderCancelled(order, now);
+            salesAnalyticsService.orderCancelled(order);
+        }
+        OrderStatusEvent.Type type = cancelling
+            ? OrderStatusEvent.Type.CANCELLED : OrderStatusEvent.Type.STATUS_CHANGED;
+        AfterCommit.run(() -> orderStatusBroadcaster.publish(orderEventLog.append(type, order)));
+        return order;
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<OrderDetails> findDetailsById(Long id) {
+        Optional<OrderDetails> order = orderRepository.findDetailsById(id);
+        order.ifPresent(details -> orderRepository.findLinesByOrderId(id).forEach(details::addItem));
+        return order;
+    }
+}
@@ -0,0 +1,553 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderEventFeed;
+import com.example.backend.dto.OrderStatusEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pushes order status changes to clients holding a Server-Sent Events stream for one of
+ * their orders or for all of them, and every order event to kitchen screens following
+ * the feed. Streams are async servlet requests, so an idle one costs a socket and a few
+ * objects but no thread. A single dispatcher thread decides what each stream gets, in
+ * order, and puts it in the stream's outbox; a small pool of writers empties the
+ * outboxes, one writer per stream at a time. Servlet writes block, so a client that stops
+ * reading holds its writer until the socket write times out, but no other stream waits
+ * on it unless every writer is stuck that way at once. A stream whose outbox fills up is
+ * closed, and its client reconnects and resumes from its last event. The dispatcher also
+ * queues the heartbeat comments that stop proxies from closing quiet streams.
+ */
+@Service
+public class OrderStatusBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusBroadcaster.class);
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+    private final ObjectMapper objectMapper;
+    private final OrderEventLog orderEventLog;
+    private final long timeoutMs;
+    private final long reconnectMs;
+    private final int maxSubscribers;
+    private final int maxPerUser;
+    private final int backlogPageSize;
+    private final int maxBacklogPages;
+    private final int maxPending;
+    private final ThreadPoolExecutor dispatcher;
+    // Unbounded, but holds at most one task per stream
+    private final ThreadPoolExecutor writers;
+
+    private final Map<Long, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final Set<Subscriber> feed = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> streamsPerUser = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Feed streams are sent the log in sequence order; only the dispatcher reads or moves this
+    private long feedPosition;
+    private final AtomicBoolean feedDrainQueued = new AtomicBoolean();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder slowClosed = new LongAdder();
+
+    public OrderStatusBroadcaster(ObjectMapper objectMapper, OrderEventLog orderEventLog,
+                                  @Value("${app.orders.events.timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${app.orders.events.reconnect-ms:3000}") long reconnectMs,
+                                  @Value("${app.orders.events.max-subscribers:10000}") int maxSubscribers,
+                                  @Value("${app.orders.events.max-per-user:5}") int maxPerUser,
+                                  @Value("${app.orders.events.queue-capacity:1024}") int queueCapacity,
+                                  @Value("${app.orders.feed.page-size.max:500}") int backlogPageSize,
+                                  @Value("${app.orders.events.max-backlog-pages:10}") int maxBacklogPages,
+                                  @Value("${app.orders.events.writer-threads:4}") int writerThreads,
+                                  @Value("${app.orders.events.max-pending:256}") int maxPending) {
+        this.objectMapper = objectMapper;
+        this.orderEventLog = orderEventLog;
+        this.timeoutMs = timeoutMs;
+        this.reconnectMs = reconnectMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerUser = maxPerUser;
+        this.backlogPageSize = backlogPageSize;
+        this.maxBacklogPages = maxBacklogPages;
+        this.maxPending = maxPending;
+        this.dispatcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "order-events");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        AtomicInteger writerNumber = new AtomicInteger();
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "order-events-writer-" + writerNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Opens a stream of the status changes of every order placed by userId, or null if
+     * the server or the user already holds as many streams as allowed.
+     */
+    public SseEmitter subscribeUser(Long userId) {
+        return subscribe(userId, null, null);
+    }
+
+    /**
+     * Opens a stream of the status changes of one order, starting with its current status,
+     * or null if the server or the order's owner already holds as many streams as allowed.
+     * The current status is read only once the stream is registered, so a change committed
+     * meanwhile is pushed rather than missed.
+     */
+    public SseEmitter subscribeOrder(Long userId, Long orderId, Supplier<OrderStatusEvent> current) {
+        return subscribe(userId, orderId, current);
+    }
+
+    /**
+     * Opens a stream of every order event after cursor, or from now on if it is null. What
+     * the reader missed is sent first, from the log or caught up from the database; a
+     * reader too far behind for one stream is sent part of it and reconnects for the rest.
+     * Returns null if the server or the reader already holds as many streams as allowed.
+     */
+    public SseEmitter subscribeFeed(Long readerId, OrderEventFeed.Cursor cursor) {
+        if (!admit(readerId)) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(newEmitter(), readerId, null, true);
+        SseEmitter emitter = open(subscriber);
+        try {
+            OrderEventFeed.Cursor position = cursor;
+            OrderEventFeed page;
+            int pages = 0;
+            do {
+                page = orderEventLog.read(position, backlogPageSize);
+                for (OrderStatusEvent event : page.getEvents()) {
+                    emitter.send(feedMessage(event));
+                }
+                position = OrderEventFeed.decodeCursor(page.getCursor());
+            } while (page.isHasMore() && ++pages < maxBacklogPages);
+            if (page.isHasMore()) {
+                remove(subscriber);
+                emitter.complete();
+                return emitter;
+            }
+            long after = position.sequence();
+            dispatcher.execute(() -> join(subscriber, after));
+        } catch (IOException e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            remove(subscriber);
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends an appended event to the streams of the order and of its owner, and to the
+     * feed. Delivery is asynchronous; callers inside a transaction should publish after it
+     * commits.
+     */
+    public void publish(OrderStatusEvent event) {
+        published.increment();
+        if (byUser.containsKey(event.getUserId()) || byOrder.containsKey(event.getOrderId())) {
+            execute(() -> deliver(event));
+        }
+        // A drain already queued will pick this event up
+        if (!feed.isEmpty() && feedDrainQueued.compareAndSet(false, true)) {
+            if (!execute(() -> {
+                feedDrainQueued.set(false);
+                drainFeed();
+            })) {
+                feedDrainQueued.set(false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.events.heartbeat-interval-ms:20000}", initialDelayString = "${app.orders.events.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                for (Subscriber subscriber : all()) {
+                    // A stream with writes pending or in progress is not idle
+                    synchronized (subscriber) {
+                        if (!subscriber.writing) {
+                            enqueue(subscriber, HEARTBEAT);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Status events are queued ahead and keep the streams busy anyway
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        for (Subscriber subscriber : all()) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.get());
+        stats.put("users", byUser.size());
+        stats.put("orders", byOrder.size());
+        stats.put("feed", feed.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("queueDepth", dispatcher.getQueue().size());
+        stats.put("writerThreads", writers.getMaximumPoolSize());
+        stats.put("writesWaiting", writers.getQueue().size());
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("failed", failed.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("slowClosed", slowClosed.sum());
+        return stats;
+    }
+
+    private boolean execute(Runnable task) {
+        try {
+            dispatcher.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Order event queue is full; an order event was not pushed");
+            return false;
+        }
+    }
+
+    private SseEmitter subscribe(Long userId, Long orderId, Supplier<OrderStatusEvent> initial) {
+        if (!admit(userId)) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(newEmitter(), userId, orderId, false);
+        indexOf(subscriber).compute(subscriber.key(), (key, set) -> {
+            Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        SseEmitter emitter = open(subscriber);
+        OrderStatusEvent current = initial != null ? initial.get() : null;
+        if (current != null) {
+            try {
+                emitter.send(message(current));
+            } catch (IOException e) {
+                remove(subscriber);
+                emitter.completeWithError(e);
+            }
+        }
+        return emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    // Counts a new stream against the server's and the user's limits
+    private boolean admit(Long userId) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        AtomicBoolean admitted = new AtomicBoolean();
+        streamsPerUser.compute(userId, (id, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= maxPerUser) {
+                return count;
+            }
+            admitted.set(true);
+            return current + 1;
+        });
+        if (!admitted.get()) {
+            subscribers.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private SseEmitter open(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        // Completing on timeout ends the response cleanly; the client reconnects after reconnectMs
+        emitter.onTimeout(emitter::complete);
+        try {
+            // Sent before the handler returns, this is buffered and flushed with the headers
+            emitter.send(SseEmitter.event().reconnectTime(reconnectMs).comment(""));
+        } catch (IOException e) {
+            remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    // Runs on the dispatcher: sends what was drained to the feed since the backlog was read, then joins it
+    private void join(Subscriber subscriber, long after) {
+        if (subscriber.removed.get()) {
+            return;
+        }
+        if (feed.isEmpty()) {
+            feedPosition = orderEventLog.head();
+        }
+        List<OrderStatusEvent> gap = after < feedPosition
+            ? orderEventLog.readAfter(after, (int) (feedPosition - after)) : List.of();
+        if (gap == null) {
+            // Overtaken while catching up; the client reconnects from its last event
+            close(subscriber);
+            return;
+        }
+        for (OrderStatusEvent event : gap) {
+            if (!enqueue(subscriber, feedMessage(event))) {
+                return;
+            }
+        }
+        subscriber.after = Math.max(after, feedPosition);
+        feed.add(subscriber);
+        if (subscriber.removed.get()) {
+            feed.remove(subscriber);
+        }
+        // Events published while the feed looked empty queued no drain
+        if (orderEventLog.head() > feedPosition) {
+            drainFeed();
+        }
+    }
+
+    private void drainFeed() {
+        if (feed.isEmpty()) {
+            feedPosition = orderEventLog.head();
+            return;
+        }
+        List<OrderStatusEvent> events = orderEventLog.readAfter(feedPosition, Integer.MAX_VALUE);
+        if (events == null) {
+            // The dispatcher fell a whole ring behind; readers reconnect and catch up from their last event
+            log.warn("Order event feed fell behind the event log; closing {} feed streams", feed.size());
+            for (Subscriber subscriber : List.copyOf(feed)) {
+                close(subscriber);
+            }
+            feedPosition = orderEventLog.head();
+            return;
+        }
+        for (OrderStatusEvent event : events) {
+            Set<DataWithMediaType> message = feedMessage(event);
+            for (Subscriber subscriber : feed) {
+                if (event.getSequence() > subscriber.after) {
+                    enqueue(subscriber, message);
+                }
+            }
+            feedPosition = event.getSequence();
+        }
+    }
+
+    private void deliver(OrderStatusEvent event) {
+        Set<DataWithMediaType> message;
+        try {
+            message = message(event);
+        } catch (IOException e) {
+            log.error("Could not serialize status change of order {}", event.getOrderId(), e);
+            return;
+        }
+        deliver(byUser.get(event.getUserId()), message);
+        deliver(byOrder.get(event.getOrderId()), message);
+    }
+
+    private void deliver(Set<Subscriber> targets, Set<DataWithMediaType> message) {
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            enqueue(subscriber, message);
+        }
+    }
+
+    // Serialized once and written as text, so a change reaching many streams is not converted per stream
+    private Set<DataWithMediaType> message(OrderStatusEvent event) throws JsonProcessingException {
+        return SseEmitter.event().name("status").data(objectMapper.writeValueAsString(event)).build();
+    }
+
+    // The id is the feed cursor after the event, which browsers send back as Last-Event-ID on reconnect
+    private Set<DataWithMediaType> feedMessage(OrderStatusEvent event) {
+        try {
+            return SseEmitter.event().id(orderEventLog.cursorOf(event)).name("order")
+                .data(objectMapper.writeValueAsString(event)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event of order " + event.getOrderId(), e);
+        }
+    }
+
+    /**
+     * Adds a message to the subscriber's outbox and starts its writer if it is idle. Returns
+     * false if the stream has ended or is closed now because its outbox is full.
+     */
+    private boolean enqueue(Subscriber subscriber, Set<DataWithMediaType> message) {
+        synchronized (subscriber) {
+            if (subscriber.removed.get()) {
+                return false;
+            }
+            if (subscriber.outbox.size() < maxPending) {
+                subscriber.outbox.add(message);
+                startWriter(subscriber);
+                return true;
+            }
+        }
+        slowClosed.increment();
+        log.debug("Closing an order event stream of user {} that stopped reading", subscriber.userId);
+        close(subscriber);
+        return false;
+    }
+
+    // Ends a stream from its writer, since completing blocks while a write to the socket is stuck
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        synchronized (subscriber) {
+            subscriber.closing = true;
+            subscriber.outbox.clear();
+            startWriter(subscriber);
+        }
+    }
+
+    // Called holding the subscriber's lock
+    private void startWriter(Subscriber subscriber) {
+        if (subscriber.writing) {
+            return;
+        }
+        subscriber.writing = true;
+        try {
+            writers.execute(() -> write(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            subscriber.writing = false;
+        }
+    }
+
+    // Runs on a writer thread, one at a time per subscriber, so its messages go out in order
+    private void write(Subscriber subscriber) {
+        while (true) {
+            Set<DataWithMediaType> message;
+            synchronized (subscriber) {
+                message = subscriber.outbox.poll();
+                if (message == null && !subscriber.closing) {
+                    subscriber.writing = false;
+                    return;
+                }
+            }
+            // A closed or failed stream keeps writing set, so nothing is written to it again
+            if (message == null) {
+                subscriber.emitter.complete();
+                return;
+            }
+            if (!send(subscriber, message)) {
+                synchronized (subscriber) {
+                    subscriber.outbox.clear();
+                }
+                return;
+            }
+            if (message != HEARTBEAT) {
+                delivered.increment();
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, Set<DataWithMediaType> message) {
+        try {
+            subscriber.emitter.send(message);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream already ended
+            failed.increment();
+            remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private List<Subscriber> all() {
+        List<Subscriber> all = new ArrayList<>(subscribers.get());
+        byUser.values().forEach(all::addAll);
+        byOrder.values().forEach(all::addAll);
+        all.addAll(feed);
+        return all;
+    }
+
+    private Map<Long, Set<Subscriber>> indexOf(Subscriber subscriber) {
+        return subscriber.orderId != null ? byOrder : byUser;
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.removed.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.feed) {
+            feed.remove(subscriber);
+        } else {
+            indexOf(subscriber).computeIfPresent(subscriber.key(), (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        streamsPerUser.computeIfPresent(subscriber.userId, (id, count) -> count > 1 ? count - 1 : null);
+        subscribers.decrementAndGet();
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Long userId;
+        final Long orderId;
+        final boolean feed;
+        final AtomicBoolean removed = new AtomicBoolean();
+        // Messages not yet written, and whether a writer owns the stream; guarded by the subscriber
+        final ArrayDeque<Set<DataWithMediaType>> outbox = new ArrayDeque<>();
+        boolean writing;
+        boolean closing;
+        // Feed events up to this sequence were sent with the backlog; dispatcher only
+        long after;
+
+        Subscriber(SseEmitter emitter, Long userId, Long orderId, boolean feed) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.orderId = orderId;
+            this.feed = feed;
+        }
+
+        Long key() {
+            return orderId != null ? orderId : userId;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Rating;
+import com.example.backend.entity.User;
+import com.example.backend.repository.FoodItemRepository;
+import com.example.backend.repository.RatingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps FoodItem rating aggregates (sum, count, average) up to date with atomic
+ * in-place updates instead of re-aggregating the ratings table on every write.
+ */
+@Service
+public class RatingService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RatingService.class);
+    
+    @Autowired
+    private RatingRepository ratingRepository;
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * Adds or changes the user's rating of a food item and applies the difference to the
+     * item's aggregates. A first rating is inserted directly rather than looked up under a
+     * lock: locking a row that does not exist takes a gap lock on InnoDB, and two first
+     * ratings holding one would deadlock on their inserts. If a concurrent first rating wins
+     * the insert, this one becomes a change to it.
+     */
+    public Rating rate(User user, FoodItem foodItem, int value, String comment) {
+        if (!ratingRepository.existsByUserAndFoodItem(user, foodItem)) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Rating rating = new Rating();
+                    rating.setUser(user);
+                    rating.setFoodItem(foodItem);
+                    return write(rating, value, comment, value, 1);
+                });
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Rating of food item {} was inserted concurrently, changing it instead", foodItem.getId());
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            // Locks the existing rating so concurrent edits compute their delta from the committed value
+            Rating rating = ratingRepository.findForUpdateByUserAndFoodItem(user, foodItem).orElseThrow();
+            int previous = rating.getRating() != null ? rating.getRating() : 0;
+            return write(rating, value, comment, value - previous, 0);
+        });
+    }
+    
+    private Rating write(Rating rating, int value, String comment, long sumDelta, int countDelta) {
+        rating.setRating(value);
+        rating.setComment(comment);
+        Rating saved = ratingRepository.saveAndFlush(rating);
+        
+        Long foodItemId = rating.getFoodItem().getId();
+        foodItemRepository.applyRatingDelta(foodItemId, sumDelta, countDelta);
+        foodItemRepository.refreshAverageRating(foodItemId);
+        
+        FoodItem updated = foodItemRepository.findById(foodItemId).orElseThrow();
+        catalogCache.foodItemSaved(updated);
+        saved.setFoodItem(updated);
+        return saved;
+    }
+    
+    /**
+     * Compares every item's stored aggregates with the ratings table and repairs drifted rows.
+     * Returns the ids of the repaired items.
+     */
+    @Transactional
+    public List<Long> reconcile() {
+        List<Long> repaired = new ArrayList<>();
+        for (Object[] row : foodItemRepository.findRatingAggregates()) {
+            Long id = (Long) row[0];
+            Integer storedCount = (Integer) row[1];
+            Long storedSum = (Long) row[2];
+            long actualCount = ((Number) row[3]).longValue();
+            long actualSum = ((Number) row[4]).longValue();
+            
+            if (storedCount == null || storedCount != actualCount || !Objects.equals(storedSum, actualSum)) {
+                // Recomputed inside the UPDATE so ratings committed since the scan are not lost
+                foodItemRepository.recomputeRatingAggregates(id);
+                foodItemRepository.refreshAverageRating(id);
+                repaired.add(id);
+                log.warn("Rating aggregates for food item {} drifted (stored count={} sum={}, actual count={} sum={})",
+                    id, storedCount, storedSum, actualCount, actualSum);
+            }
+        }
+        
+        for (Long id : repaired) {
+            foodItemRepository.findById(id).ifPresent(catalogCache::foodItemSaved);
+        }
+        return repaired;
+    }
+    
+    @Scheduled(cron = "${app.ratings.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public void scheduledReconcile() {
+        List<Long> repaired = reconcile();
+        log.info("Rating reconciliation finished, {} item(s) repaired", repaired.size());
+    }
+    
+    // Rows written before rating sums were tracked need a one-off backfill
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillMissingSums() {
+        if (foodItemRepository.existsByRatingSumIsNull()) {
+            reconcile();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Writes rows of an export one at a time in a {@link TransferFormat}; nothing is kept
+ * between rows.
+ */
+interface RowWriter {
+
+    void header(String[] columns) throws IOException;
+
+    void row(String[] columns, Object[] values) throws IOException;
+
+    // Pushes buffered rows through to output
+    void flush() throws IOException;
+
+    static RowWriter open(Writer output, TransferFormat format, ObjectMapper objectMapper) throws IOException {
+        return format == TransferFormat.CSV ? new CsvWriter(output) : new NdjsonWriter(output, objectMapper);
+    }
+
+    class CsvWriter implements RowWriter {
+        private final Writer output;
+
+        CsvWriter(Writer output) {
+            this.output = output;
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            write(columns);
+        }
+
+        @Override
+        public void row(String[] columns, Object[] values) throws IOException {
+            write(values);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            output.flush();
+        }
+
+        private void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    output.write(',');
+                }
+                Object value = values[i];
+                String text = value == null ? "" : value instanceof BigDecimal decimal ? decimal.toPlainString()
+                    : value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                        || text.indexOf('\r') >= 0) {
+                    output.write('"');
+                    output.write(text.replace("\"", "\"\""));
+                    output.write('"');
+                } else {
+                    output.write(text);
+                }
+            }
+            output.write("\r\n");
+        }
+    }
+
+    class NdjsonWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(Writer output, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.createGenerator(output);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void header(String[] columns) {
+        }
+
+        @Override
+        public void row(String[] columns, Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeObjectField(columns[i], values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.SalesLine;
+import com.example.backend.entity.Category;
+import com.example.backend.entity.FoodItem;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.OrderItem;
+import com.example.backend.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Sales totals kept in memory as hourly buckets, one block of primitive arrays per
+ * day holding only the hours and food item slots that sold that day. Range queries
+ * merge the day blocks in parallel, so reporting never runs GROUP BYs against the
+ * orders tables.
+ *
+ * Bucket revenue is the order total after discounts; item and category revenue is
+ * line price times quantity. Cancelled orders are excluded.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MAX_RANGE_DAYS = 3660;
+    private static final int MAX_BUCKETS = 1500;
+
+    public enum Granularity { HOUR, DAY, WEEK }
+
+    public enum GroupBy { NONE, CATEGORY, ITEM }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CatalogCache catalogCache;
+
+    private volatile Store store = new Store();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.currentTimeMillis();
+        Store loaded = new Store();
+        long orders = 0;
+        try (Stream<SalesLine> stream = orderRepository.streamSalesOrders(Order.Status.CANCELLED)) {
+            for (SalesLine order : (Iterable<SalesLine>) stream::iterator) {
+                loaded.block(order.getCreatedAt().toLocalDate())
+                    .addOrder(order.getCreatedAt().getHour(), cents(order.getAmount()), 1);
+                orders++;
+            }
+        }
+        long lines = 0;
+        try (Stream<SalesLine> stream = orderRepository.streamSalesLines(Order.Status.CANCELLED)) {
+            for (SalesLine line : (Iterable<SalesLine>) stream::iterator) {
+                if (line.getFoodItemId() != null) {
+                    loaded.block(line.getCreatedAt().toLocalDate()).addLine(line.getCreatedAt().getHour(),
+                        loaded.slotFor(line.getFoodItemId()), cents(line.getAmount()), line.getQuantity());
+                }
+                lines++;
+            }
+        }
+        store = loaded;
+        log.info("Loaded sales analytics for {} orders and {} lines over {} days ({} item cells) in {} ms",
+            orders, lines, loaded.days.size(), loaded.cellCount(), System.currentTimeMillis() - start);
+    }
+
+    public void orderPlaced(Order order) {
+        Sale sale = Sale.of(order);
+        AfterCommit.run(() -> record(sale, 1));
+    }
+
+    public void orderCancelled(Order order) {
+        Sale sale = Sale.of(order);
+        AfterCommit.run(() -> record(sale, -1));
+    }
+
+    /**
+     * Returns one entry per bucket between from and to (inclusive), each with order
+     * count, revenue and quantity, plus a per category or per item breakdown.
+     * Throws IllegalArgumentException when the range is empty or too large.
+     */
+    public List<Map<String, Object>> query(LocalDate from, LocalDate to, Granularity granularity, GroupBy groupBy) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must be between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        LocalDate origin = granularity == Granularity.WEEK
+            ? from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : from;
+        int buckets = bucketOf(origin, to, HOURS_PER_DAY - 1, granularity) + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range covers " + buckets + " buckets; at most " + MAX_BUCKETS + " are allowed");
+        }
+
+        Store current = store;
+        Groups groups = Groups.of(current.itemIds(), groupBy, catalogCache);
+        Partial total = LongStream.rangeClosed(from.toEpochDay(), to.toEpochDay())
+            .parallel()
+            .collect(() -> new Partial(buckets, groups.names.size()), (partial, epochDay) -> {
+                DayBlock block = current.days.get(epochDay);
+                if (block != null) {
+                    LocalDate day = LocalDate.ofEpochDay(epochDay);
+                    int[] bucketByHour = new int[HOURS_PER_DAY];
+                    for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                        bucketByHour[hour] = bucketOf(origin, day, hour, granularity);
+                    }
+                    block.accumulate(partial, bucketByHour, groups.groupBySlot);
+                }
+            }, Partial::merge);
+
+        List<Map<String, Object>> result = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("start", bucketStart(origin, bucket, granularity));
+            entry.put("orders", total.orders[bucket]);
+            entry.put("revenue", money(total.revenueCents[bucket]));
+            entry.put("quantity", total.quantity[bucket]);
+            if (groupBy != GroupBy.NONE) {
+                entry.put("breakdown", breakdown(total, bucket, groups));
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> breakdown(Partial total, int bucket, Groups groups) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        Map<Integer, long[]> sums = total.groupSums[bucket];
+        if (sums == null) {
+            return rows;
+        }
+        List<Map.Entry<Integer, long[]>> order = new ArrayList<>(sums.entrySet());
+        // Highest revenue first, ties in group order
+        order.sort((a, b) -> a.getValue()[0] != b.getValue()[0]
+            ? Long.compare(b.getValue()[0], a.getValue()[0]) : Integer.compare(a.getKey(), b.getKey()));
+        for (Map.Entry<Integer, long[]> group : order) {
+            long[] sum = group.getValue();
+            if (sum[0] == 0 && sum[1] == 0) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", groups.ids.get(group.getKey()));
+            row.put("name", groups.names.get(group.getKey()));
+            row.put("revenue", money(sum[0]));
+            row.put("quantity", sum[1]);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void record(Sale sale, int sign) {
+        if (sale.createdAt == null) {
+            return;
+        }
+        Store current = store;
+        int[] slots = new int[sale.itemIds.length];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = current.slotFor(sale.itemIds[i]);
+        }
+        current.block(sale.createdAt.toLocalDate()).addSale(sale.createdAt.getHour(), sign, sale, slots);
+    }
+
+    private static int bucketOf(LocalDate origin, LocalDate day, int hour, Granularity granularity) {
+        long days = ChronoUnit.DAYS.between(origin, day);
+        return switch (granularity) {
+            case HOUR -> (int) (days * HOURS_PER_DAY + hour);
+            case DAY -> (int) days;
+            case WEEK -> (int) (days / 7);
+        };
+    }
+
+    private static LocalDateTime bucketStart(LocalDate origin, int bucket, Granularity granularity) {
+        return switch (granularity) {
+            case HOUR -> origin.atStartOfDay().plusHours(bucket);
+            case DAY -> origin.plusDays(bucket).atStartOfDay();
+            case WEEK -> origin.plusWeeks(bucket).atStartOfDay();
+        };
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0;
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /** An order flattened to primitives so it can be recorded after the session is gone. */
+    private record Sale(LocalDateTime createdAt, long totalCents, long[] itemIds, long[] lineCents, int[] quantities) {
+        static Sale of(Order order) {
+            List<OrderItem> items = order.getItems() != null ? order.getItems() : List.of();
+            long[] itemIds = new long[items.size()];
+            long[] lineCents = new long[items.size()];
+            int[] quantities = new int[items.size()];
+            int n = 0;
+            for (OrderItem item : items) {
+                if (item.getFoodItem() == null || item.getQuantity() == null) {
+                    continue;
+                }
+                itemIds[n] = item.getFoodItem().getId();
+                quantities[n] = item.getQuantity();
+                lineCents[n] = item.getPrice() != null
+                    ? cents(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))) : 0;
+                n++;
+            }
+            return new Sale(order.getCreatedAt(), cents(order.getTotalAmount()),
+                Arrays.copyOf(itemIds, n), Arrays.copyOf(lineCents, n), Arrays.copyOf(quantities, n));
+        }
+    }
+
+    /** Dense slot numbering of food item ids, plus the day blocks. */
+    private static final class Store {
+        final Map<Long, DayBlock> days = new ConcurrentHashMap<>();
+        final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+        private long[] itemIds = new long[64];
+        private int slotCount;
+
+        DayBlock block(LocalDate day) {
+            return days.computeIfAbsent(day.toEpochDay(), d -> new DayBlock());
+        }
+
+        int slotFor(long itemId) {
+            Integer slot = slots.get(itemId);
+            if (slot != null) {
+                return slot;
+            }
+            synchronized (this) {
+                return slots.computeIfAbsent(itemId, id -> {
+                    if (slotCount == itemIds.length) {
+                        itemIds = Arrays.copyOf(itemIds, slotCount * 2);
+                    }
+                    itemIds[slotCount] = id;
+                    return slotCount++;
+                });
+            }
+        }
+
+        synchronized long[] itemIds() {
+            return Arrays.copyOf(itemIds, slotCount);
+        }
+
+        long cellCount() {
+            return days.values().stream().mapToLong(DayBlock::cellCount).sum();
+        }
+    }
+
+    /**
+     * One day of sales. Order counters are indexed by hour. Item counters exist only for
+     * the (hour, slot) cells that sold that day, in an open-addressing table keyed by
+     * slot * 24 + hour, so a day's memory follows what sold rather than every item ever sold.
+     */
+    private static final class DayBlock {
+        private static final int EMPTY = -1;
+        private static final int INITIAL_CELLS = 16;
+
+        private final long[] orders = new long[HOURS_PER_DAY];
+        private final long[] revenueCents = new long[HOURS_PER_DAY];
+        private final long[] quantity = new long[HOURS_PER_DAY];
+        private int[] cellKeys = emptyKeys(INITIAL_CELLS);
+        private long[] cellRevenueCents = new long[INITIAL_CELLS];
+        private long[] cellQuantity = new long[INITIAL_CELLS];
+        private int cells;
+
+        synchronized void addOrder(int hour, long cents, int count) {
+            orders[hour] += count;
+            revenueCents[hour] += cents;
+        }
+
+        synchronized void addLine(int hour, int slot, long cents, int qty) {
+            int cell = cell(hour, slot);
+            cellRevenueCents[cell] += cents;
+            cellQuantity[cell] += qty;
+            quantity[hour] += qty;
+        }
+
+        // The whole order is applied under one lock, so queries never see half an order
+        synchronized void addSale(int hour, int sign, Sale sale, int[] slots) {
+            orders[hour] += sign;
+            revenueCents[hour] += sign * sale.totalCents();
+            for (int i = 0; i < slots.length; i++) {
+                int cell = cell(hour, slots[i]);
+                cellRevenueCents[cell] += sign * sale.lineCents()[i];
+                cellQuantity[cell] += (long) sign * sale.quantities()[i];
+                quantity[hour] += (long) sign * sale.quantities()[i];
+            }
+        }
+
+        synchronized void accumulate(Partial into, int[] bucketByHour, int[] groupBySlot) {
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                int bucket = bucketByHour[hour];
+                into.orders[bucket] += orders[hour];
+                into.revenueCents[bucket] += revenueCents[hour];
+                into.quantity[bucket] += quantity[hour];
+            }
+            int groups = into.groups;
+            if (groups == 0) {
+                return;
+            }
+            for (int i = 0; i < cellKeys.length; i++) {
+                int key = cellKeys[i];
+                int slot = key / HOURS_PER_DAY;
+                // Empty cells, and items first sold after the query took its snapshot of slots
+                if (key == EMPTY || slot >= groupBySlot.length) {
+                    continue;
+                }
+                long[] sum = into.groupSum(bucketByHour[key % HOURS_PER_DAY], groupBySlot[slot]);
+                sum[0] += cellRevenueCents[i];
+                sum[1] += cellQuantity[i];
+            }
+        }
+
+        synchronized int cellCount() {
+            return cells;
+        }
+
+        // Index of the cell for hour and slot, adding it if the item has not sold in that hour yet
+        private int cell(int hour, int slot) {
+            int key = slot * HOURS_PER_DAY + hour;
+            int mask = cellKeys.length - 1;
+            int i = hash(key) & mask;
+            while (cellKeys[i] != key) {
+                if (cellKeys[i] == EMPTY) {
+                    // Kept at most half full so probe runs stay short
+                    if (2 * (cells + 1) > cellKeys.length) {
+                        grow();
+                        return cell(hour, slot);
+                    }
+                    cellKeys[i] = key;
+                    cells++;
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private void grow() {
+            int[] keys = cellKeys;
+            long[] revenue = cellRevenueCents;
+            long[] qty = cellQuantity;
+            cellKeys = emptyKeys(keys.length * 2);
+            cellRevenueCents = new long[keys.length * 2];
+            cellQuantity = new long[keys.length * 2];
+            int mask = cellKeys.length - 1;
+            for (int j = 0; j < keys.length; j++) {
+                if (keys[j] == EMPTY) {
+                    continue;
+                }
+                int i = hash(keys[j]) & mask;
+                while (cellKeys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                cellKeys[i] = keys[j];
+                cellRevenueCents[i] = revenue[j];
+                cellQuantity[i] = qty[j];
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static int[] emptyKeys(int size) {
+            int[] keys = new int[size];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+
+    /** Maps item slots to output groups: none, one per category, or one per item. */
+    private static final class Groups {
+        final int[] groupBySlot;
+        final List<Long> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+
+        private Groups(int slots) {
+            this.groupBySlot = new int[slots];
+        }
+
+        static Groups of(long[] itemIds, GroupBy groupBy, CatalogCache catalog) {
+            if (groupBy == GroupBy.NONE) {
+                return new Groups(0);
+            }
+            Groups groups = new Groups(itemIds.length);
+            Map<Long, Integer> groupById = new HashMap<>();
+            for (int slot = 0; slot < itemIds.length; slot++) {
+                FoodItem item = catalog.getItem(itemIds[slot]);
+                Long id;
+                String name;
+                if (groupBy == GroupBy.ITEM) {
+                    id = itemIds[slot];
+                    name = item != null ? item.getName() : null;
+                } else {
+                    Category category = item != null ? item.getCategory() : null;
+                    id = category != null ? category.getId() : null;
+                    name = category != null ? category.getName() : null;
+                }
+                Integer group = groupById.get(id);
+                if (group == null) {
+                    group = groups.ids.size();
+                    groupById.put(id, group);
+                    groups.ids.add(id);
+                    groups.names.add(name);
+                }
+                groups.groupBySlot[slot] = group;
+            }
+            return groups;
+        }
+    }
+
+    /**
+     * Per-bucket sums collected by one parallel worker. The breakdown holds revenue and
+     * quantity only for the groups that sold in a bucket, so a worker's memory follows
+     * the sales in its days rather than buckets times every item ever sold.
+     */
+    private static final class Partial {
+        final int groups;
+        final long[] orders;
+        final long[] revenueCents;
+        final long[] quantity;
+        // Per bucket, group to {revenue cents, quantity}; null until something sells in the bucket
+        final Map<Integer, long[]>[] groupSums;
+
+        @SuppressWarnings("unchecked")
+        Partial(int buckets, int groups) {
+            this.groups = groups;
+            this.orders = new long[buckets];
+            this.revenueCents = new long[buckets];
+            this.quantity = new long[buckets];
+            this.groupSums = new Map[buckets];
+        }
+
+        long[] groupSum(int bucket, int group) {
+            Map<Integer, long[]> sums = groupSums[bucket];
+            if (sums == null) {
+                sums = new HashMap<>();
+                groupSums[bucket] = sums;
+            }
+            return sums.computeIfAbsent(group, g -> new long[2]);
+        }
+
+        void merge(Partial other) {
+            add(orders, other.orders);
+            add(revenueCents, other.revenueCents);
+            add(quantity, other.quantity);
+            for (int bucket = 0; bucket < groupSums.length; bucket++) {
+                Map<Integer, long[]> from = other.groupSums[bucket];
+                if (from == null) {
+                    continue;
+                }
+                for (Map.Entry<Integer, long[]> group : from.entrySet()) {
+                    long[] sum = groupSum(bucket, group.getKey());
+                    sum[0] += group.getValue()[0];
+                    sum[1] += group.getValue()[1];
+                }
+            }
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+    }
+}
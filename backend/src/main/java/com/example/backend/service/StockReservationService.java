@@ -0,0 +1,114 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.FoodItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserves FoodItem stock for orders. Per-item in-memory counters reject orders for
+ * sold-out items without touching the database; the authoritative decrement is a
+ * conditional UPDATE that can never take stock below zero.
+ */
+@Service
+public class StockReservationService {
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    private final Map<Long, AtomicInteger> counters = new ConcurrentHashMap<>();
+    
+    /**
+     * Reserves the given quantities within the caller's transaction. Throws
+     * IllegalArgumentException if any item does not have enough stock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities) {
+        // Fixed id order so concurrent orders lock food item rows in the same sequence
+        Map<Long, Integer> lines = new TreeMap<>(quantities);
+        Map<Long, Integer> taken = new TreeMap<>();
+        
+        // Whatever was taken from the counters is handed back if the order does not commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    taken.forEach((id, quantity) -> counter(id).addAndGet(quantity));
+                }
+            }
+        });
+        
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Long id = line.getKey();
+            int quantity = line.getValue();
+            
+            if (!takeFromCounter(id, quantity)) {
+                throw new IllegalArgumentException("Not enough stock for food item " + id);
+            }
+            taken.put(id, quantity);
+            
+            if (foodItemRepository.reserveStock(id, quantity) == 0) {
+                // Another node sold it first; the counter was optimistic
+                throw new IllegalArgumentException("Not enough stock for food item " + id);
+            }
+            if (foodItemRepository.markSoldOutIfEmpty(id) > 0) {
+                catalogCache.foodItemSoldOut(id);
+            }
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Integer> quantities) {
+        Map<Long, Integer> lines = new TreeMap<>(quantities);
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            foodItemRepository.releaseStock(line.getKey(), line.getValue());
+        }
+        AfterCommit.run(() -> lines.forEach((id, quantity) -> counter(id).addAndGet(quantity)));
+    }
+    
+    // Drops the cached counter, e.g. after an admin sets the stock level directly
+    public void invalidate(Long id) {
+        counters.remove(id);
+    }
+    
+    private boolean takeFromCounter(Long id, int quantity) {
+        AtomicInteger counter = counter(id);
+        if (tryTake(counter, quantity)) {
+            return true;
+        }
+        // The counter may be behind a restock made elsewhere, so re-read once before refusing
+        counter.set(loadStock(id));
+        return tryTake(counter, quantity);
+    }
+    
+    private static boolean tryTake(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+    
+    private AtomicInteger counter(Long id) {
+        return counters.computeIfAbsent(id, key -> new AtomicInteger(loadStock(key)));
+    }
+    
+    private int loadStock(Long id) {
+        Integer stock = foodItemRepository.findStockQuantityById(id);
+        return stock != null ? stock : 0;
+    }
+}
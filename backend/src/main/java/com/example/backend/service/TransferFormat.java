@@ -0,0 +1,31 @@
+package com.example.backend.service;
+
+import java.util.Locale;
+
+/**
+ * File formats for bulk imports and exports: CSV with a header row, or newline-delimited
+ * JSON with one object per row.
+ */
+public enum TransferFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    public final String mediaType;
+    public final String extension;
+
+    TransferFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    // Accepts a format name ("csv", "ndjson") or a content type
+    public static TransferFormat of(String value) {
+        String name = value == null ? "" : value.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        for (TransferFormat format : values()) {
+            if (format.extension.equals(name) || format.mediaType.equals(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported format: " + value);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ImportResult;
+import com.example.backend.dto.ImportResult.RowError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MenuTransferServiceTests {
+
+	private static final int MAX_ROW_CHARS = 256;
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() {
+		DataSource dataSource = new DriverManagerDataSource(
+			"jdbc:h2:mem:menu-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		jdbcTemplate.execute("CREATE TABLE categories (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), " +
+			"description VARCHAR(500), image_url VARCHAR(255), active BOOLEAN)");
+		// The unique name lets a test make the database refuse one row of a batch
+		jdbcTemplate.execute("CREATE TABLE food_items (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+			"name VARCHAR(100) UNIQUE, description VARCHAR(1000), price DECIMAL(10, 2), image_url VARCHAR(255), " +
+			"category_id BIGINT, available BOOLEAN, stock_quantity INT, average_rating DOUBLE, rating_count INT, " +
+			"rating_sum BIGINT)");
+		jdbcTemplate.update("INSERT INTO categories (name, active) VALUES ('Soups', TRUE)");
+	}
+
+	@Test
+	void csvHandlesQuotingLineEndingsAndByteOrderMark() throws IOException {
+		String csv = "\uFEFFname,description,imageUrl,active\r\n" +
+			"Salads,\"Cold, fresh \"\"daily\"\"\",,true\r\n" +
+			"Stews,\"Slow\nand thick\",,\r\n" +
+			"\r\n" +
+			"Wraps,Rolled,,no\r" +
+			"Bowls,Deep,,1";
+
+		ImportResult result = service(500, 100).importCategories(new StringReader(csv), TransferFormat.CSV);
+
+		assertThat(result.getImported()).isEqualTo(4);
+		assertThat(result.getFailed()).isZero();
+		assertThat(result.isCompleted()).isTrue();
+		assertThat(categories()).containsExactly(
+			List.of("Soups", "", "true"),
+			List.of("Salads", "Cold, fresh \"daily\"", "true"),
+			List.of("Stews", "Slow\nand thick", "true"),
+			List.of("Wraps", "Rolled", "false"),
+			List.of("Bowls", "Deep", "true"));
+	}
+
+	@Test
+	void csvReportsBadRowsByLineAndStopsAtAnUnclosedQuote() throws IOException {
+		String csv = "name,description,imageUrl,active\n" +
+			"Salads,Cold,,true\n" +
+			"Broken,only two\n" +
+			"Stews,\"Slow\nand thick\",,true\n" +
+			"Pies,Baked,,maybe\n" +
+			"soups,Again,,true\n" +
+			"Cakes,\"never closed,,true\n" +
+			"Tarts,Sweet,,true\n";
+
+		ImportResult result = service(500, 100).importCategories(new StringReader(csv), TransferFormat.CSV);
+
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getFailed()).isEqualTo(3);
+		assertThat(result.isCompleted()).isFalse();
+		assertThat(result.getErrors()).containsExactly(
+			new RowError(3, "Expected 4 fields, found 2"),
+			new RowError(6, "active must be true or false"),
+			new RowError(7, "Category 'soups' already exists"),
+			new RowError(8, "Quoted field is never closed"));
+		assertThat(categories()).extracting(row -> row.get(0)).containsExactly("Soups", "Salads", "Stews");
+	}
+
+	@Test
+	void csvRowOverTheLimitStopsTheImport() throws IOException {
+		String csv = "name,description,imageUrl,active\n" +
+			"Salads,Cold,,true\n" +
+			"Stews," + "x".repeat(MAX_ROW_CHARS) + ",,true\n" +
+			"Wraps,Rolled,,true\n";
+
+		ImportResult result = service(500, 100).importCategories(new StringReader(csv), TransferFormat.CSV);
+
+		assertThat(result.getImported()).isEqualTo(1);
+		assertThat(result.isCompleted()).isFalse();
+		assertThat(result.getErrors()).containsExactly(
+			new RowError(3, "Row is longer than " + MAX_ROW_CHARS + " characters"));
+	}
+
+	@Test
+	void ndjsonFailsOnlyTheLinesItCannotUse() throws IOException {
+		Long soups = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'Soups'", Long.class);
+		String ndjson = "{\"name\":\"Tomato\",\"price\":\"3.50\",\"category\":\"soups\"}\n" +
+			"\n" +
+			"{\"name\":\"Leek\",\"price\":2.5,\"categoryId\":" + soups + ",\"stockQuantity\":7}\n" +
+			"{\"name\":\"Bad\"\n" +
+			"[1,2]\n" +
+			"{\"name\":\"Free\",\"price\":\"0\",\"categoryId\":" + soups + "}\n" +
+			"{\"name\":\"" + "x".repeat(MAX_ROW_CHARS) + "\"}\n" +
+			"{\"name\":\"Lost\",\"price\":\"1\",\"category\":\"Desserts\"}\n" +
+			"{\"name\":\"Last\",\"price\":\"1\",\"category\":\"Soups\",\"available\":false}";
+
+		ImportResult result = service(500, 100).importFoodItems(new StringReader(ndjson), TransferFormat.NDJSON);
+
+		assertThat(result.getImported()).isEqualTo(3);
+		assertThat(result.getFailed()).isEqualTo(5);
+		assertThat(result.isCompleted()).isTrue();
+		assertThat(result.getErrors()).extracting(RowError::line).containsExactly(4L, 5L, 6L, 7L, 8L);
+		assertThat(result.getErrors().get(0).message()).startsWith("Invalid JSON");
+		assertThat(result.getErrors().subList(1, 5)).extracting(RowError::message).containsExactly(
+			"Expected a JSON object",
+			"price must be greater than 0",
+			"Row is longer than " + MAX_ROW_CHARS + " characters",
+			"Category 'Desserts' not found");
+		assertThat(jdbcTemplate.queryForList("SELECT name, stock_quantity, available FROM food_items ORDER BY id"))
+			.extracting(row -> List.of(row.get("NAME"), row.get("STOCK_QUANTITY"), row.get("AVAILABLE")))
+			.containsExactly(List.of("Tomato", 0, true), List.of("Leek", 7, true), List.of("Last", 0, false));
+	}
+
+	@Test
+	void batchTheDatabaseRefusesIsRetriedRowByRow() throws IOException {
+		String csv = "name,price,category\n" +
+			"A,1,Soups\n" +
+			"B,1,Soups\n" +
+			"C,1,Soups\n" +
+			"B,1,Soups\n" +
+			"E,1,Soups\n" +
+			"F,1,Soups\n" +
+			"G,1,Soups\n";
+
+		ImportResult result = service(3, 100).importFoodItems(new StringReader(csv), TransferFormat.CSV);
+
+		assertThat(result.getImported()).isEqualTo(6);
+		assertThat(result.getFailed()).isEqualTo(1);
+		assertThat(result.getErrors()).extracting(RowError::line).containsExactly(5L);
+		assertThat(jdbcTemplate.queryForList("SELECT name FROM food_items ORDER BY id", String.class))
+			.containsExactly("A", "B", "C", "E", "F", "G");
+	}
+
+	@Test
+	void errorListIsCappedButEveryFailureIsCounted() throws IOException {
+		StringBuilder csv = new StringBuilder("name,price,category\n");
+		for (int i = 0; i < 5; i++) {
+			csv.append("Item ").append(i).append(",free,Soups\n");
+		}
+
+		ImportResult result = service(500, 2).importFoodItems(new StringReader(csv.toString()), TransferFormat.CSV);
+
+		assertThat(result.getFailed()).isEqualTo(5);
+		assertThat(result.getErrors()).extracting(RowError::line).containsExactly(2L, 3L);
+	}
+
+	@Test
+	void importReadsNoFurtherAheadThanOneBatch() throws IOException {
+		int rows = 20_000;
+		int batchSize = 100;
+		GeneratedCsv input = new GeneratedCsv(rows);
+		long[] batched = {0};
+		long[] maxReadAhead = {0};
+		JdbcTemplate recording = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+			@Override
+			public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+				batched[0] += batchArgs.size();
+				maxReadAhead[0] = Math.max(maxReadAhead[0], input.rowsProduced - batched[0]);
+				return super.batchUpdate(sql, batchArgs);
+			}
+		};
+		MenuTransferService service = new MenuTransferService(recording, transactionTemplate,
+			new ObjectMapper(), mock(CatalogCache.class), batchSize, 100, MAX_ROW_CHARS, 500);
+
+		ImportResult result = service.importFoodItems(input, TransferFormat.CSV);
+
+		assertThat(result.getImported()).isEqualTo(rows);
+		assertThat(batched[0]).isEqualTo(rows);
+		// Rows are handed to the database as they are parsed; the input is never buffered whole
+		assertThat(maxReadAhead[0]).isLessThanOrEqualTo(1);
+	}
+
+	private MenuTransferService service(int batchSize, int maxErrors) {
+		return new MenuTransferService(jdbcTemplate, transactionTemplate, new ObjectMapper(),
+			mock(CatalogCache.class), batchSize, maxErrors, MAX_ROW_CHARS, 500);
+	}
+
+	private List<List<String>> categories() {
+		return jdbcTemplate.query("SELECT name, description, active FROM categories ORDER BY id",
+			(rs, i) -> List.of(rs.getString(1), rs.getString(2) != null ? rs.getString(2) : "",
+				String.valueOf(rs.getBoolean(3))));
+	}
+
+	// CSV food items made up as they are read, counting the rows handed out so far
+	private static class GeneratedCsv extends Reader {
+		private final int rows;
+		private String pending = "name,price,category\n";
+		private int position;
+		long rowsProduced;
+
+		GeneratedCsv(int rows) {
+			this.rows = rows;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) {
+			if (position == pending.length()) {
+				if (rowsProduced == rows) {
+					return -1;
+				}
+				rowsProduced++;
+				pending = "Item " + rowsProduced + ",2.50,Soups\n";
+				position = 0;
+			}
+			int count = Math.min(length, pending.length() - position);
+			pending.getChars(position, position + count, buffer, offset);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderEventFeed;
+import com.example.backend.dto.OrderEventFeed.Cursor;
+import com.example.backend.dto.OrderStatusEvent;
+import com.example.backend.entity.Order;
+import com.example.backend.entity.User;
+import com.example.backend.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderEventLogTests {
+
+	private static final long OVERLAP_MS = 5_000;
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+	@Test
+	void concurrentAppendsArePublishedAsOneGaplessSequence() throws Exception {
+		int threads = 16;
+		int perThread = 2_000;
+		int total = threads * perThread;
+		OrderEventLog log = new OrderEventLog(orderRepository, total, OVERLAP_MS);
+		ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> writers = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				long firstOrder = (long) thread * perThread;
+				writers.add(pool.submit(() -> {
+					start.await();
+					for (long order = firstOrder; order < firstOrder + perThread; order++) {
+						log.append(OrderStatusEvent.Type.CREATED, order(order));
+					}
+					return null;
+				}));
+			}
+			// Reads while the writers run: whatever is published must be there, in order, without holes
+			Future<Long> reader = pool.submit(() -> {
+				start.await();
+				long seen = 0;
+				while (seen < total) {
+					List<OrderStatusEvent> events = log.readAfter(seen, 1_000);
+					assertThat(events).isNotNull();
+					for (OrderStatusEvent event : events) {
+						assertThat(event.getSequence()).isEqualTo(++seen);
+					}
+				}
+				return seen;
+			});
+			start.countDown();
+			for (Future<?> writer : writers) {
+				writer.get(30, TimeUnit.SECONDS);
+			}
+			assertThat(reader.get(30, TimeUnit.SECONDS)).isEqualTo(total);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(log.head()).isEqualTo(total);
+		List<OrderStatusEvent> all = log.readAfter(0, total);
+		assertThat(all).extracting(OrderStatusEvent::getSequence)
+			.containsExactly(LongStream.rangeClosed(1, total).boxed().toArray(Long[]::new));
+		assertThat(all).extracting(OrderStatusEvent::getOrderId).doesNotHaveDuplicates();
+		assertThat(log.readAfter(total, 10)).isEmpty();
+	}
+
+	@Test
+	void readerBehindTheRingIsCaughtUpFromTheDatabase() {
+		OrderEventLog log = new OrderEventLog(orderRepository, 16, OVERLAP_MS);
+		Cursor start = OrderEventFeed.decodeCursor(log.read(null, 10).getCursor());
+		for (long order = 1; order <= 40; order++) {
+			log.append(OrderStatusEvent.Type.CREATED, order(order));
+		}
+		assertThat(log.readAfter(start.sequence(), 10)).isNull();
+
+		LocalDateTime changed = start.since().plusSeconds(1);
+		List<OrderStatusEvent> rows = List.of(
+			new OrderStatusEvent(3L, 1L, Order.Status.PREPARING, start.since(), changed),
+			new OrderStatusEvent(4L, 1L, Order.Status.CANCELLED, start.since(), changed));
+		when(orderRepository.findChangedSince(any(), anyLong(), any())).thenReturn(rows);
+
+		OrderEventFeed feed = log.read(start, 10);
+
+		// Commit order and timestamps can disagree, so the first catch-up reaches back by the overlap
+		verify(orderRepository).findChangedSince(start.since().minusNanos(OVERLAP_MS * 1_000_000), 0L, Limit.of(11));
+		assertThat(feed.getEvents()).isEqualTo(rows);
+		assertThat(feed.isHasMore()).isFalse();
+		Cursor next = OrderEventFeed.decodeCursor(feed.getCursor());
+		assertThat(next.epoch()).isEqualTo(start.epoch());
+		assertThat(next.sequence()).isEqualTo(40);
+		assertThat(next.since()).isEqualTo(changed);
+
+		// Back on the ring: the next read comes from memory
+		log.append(OrderStatusEvent.Type.STATUS_CHANGED, order(41));
+		OrderEventFeed after = log.read(next, 10);
+		assertThat(after.getEvents()).extracting(OrderStatusEvent::getSequence).containsExactly(41L);
+		assertThat(log.getStats().get("catchUps")).isEqualTo(1L);
+	}
+
+	@Test
+	void catchUpPagesResumeAfterTheLastRowWithoutOverlap() {
+		OrderEventLog log = new OrderEventLog(orderRepository, 16, OVERLAP_MS);
+		Cursor start = OrderEventFeed.decodeCursor(log.read(null, 2).getCursor());
+		for (long order = 1; order <= 40; order++) {
+			log.append(OrderStatusEvent.Type.CREATED, order(order));
+		}
+		LocalDateTime changed = start.since().plusSeconds(1);
+		when(orderRepository.findChangedSince(any(), anyLong(), any())).thenReturn(List.of(
+			new OrderStatusEvent(5L, 1L, Order.Status.PREPARING, start.since(), changed),
+			new OrderStatusEvent(6L, 1L, Order.Status.PREPARING, start.since(), changed),
+			new OrderStatusEvent(7L, 1L, Order.Status.PREPARING, start.since(), changed)));
+
+		OrderEventFeed page = log.read(start, 2);
+
+		assertThat(page.getEvents()).extracting(OrderStatusEvent::getOrderId).containsExactly(5L, 6L);
+		assertThat(page.isHasMore()).isTrue();
+		Cursor next = OrderEventFeed.decodeCursor(page.getCursor());
+		assertThat(next.sequence()).isEqualTo(-1);
+		assertThat(next.since()).isEqualTo(changed);
+		assertThat(next.afterId()).isEqualTo(6L);
+
+		log.read(next, 2);
+		verify(orderRepository).findChangedSince(changed, 6L, Limit.of(3));
+	}
+
+	@Test
+	void cursorsRoundTripAndOnlyResumeTheRunThatIssuedThem() {
+		OrderEventLog log = new OrderEventLog(orderRepository, 16, OVERLAP_MS);
+		OrderStatusEvent first = log.append(OrderStatusEvent.Type.CREATED, order(1));
+		log.append(OrderStatusEvent.Type.CREATED, order(2));
+		log.append(OrderStatusEvent.Type.STATUS_CHANGED, order(1));
+
+		Cursor cursor = OrderEventFeed.decodeCursor(log.cursorOf(first));
+		assertThat(OrderEventFeed.decodeCursor(OrderEventFeed.encodeCursor(cursor))).isEqualTo(cursor);
+		assertThat(cursor.sequence()).isEqualTo(1);
+		assertThat(cursor.since()).isEqualTo(first.getUpdatedAt());
+
+		OrderEventFeed feed = log.read(cursor, 10);
+		assertThat(feed.getEvents()).extracting(OrderStatusEvent::getSequence).containsExactly(2L, 3L);
+		assertThat(OrderEventFeed.decodeCursor(feed.getCursor()).sequence()).isEqualTo(3);
+		verify(orderRepository, never()).findChangedSince(any(), anyLong(), any());
+
+		// A cursor from an earlier run names sequences this log never issued
+		when(orderRepository.findChangedSince(any(), anyLong(), any())).thenReturn(List.of());
+		Cursor stale = new Cursor(cursor.epoch() - 1, 2, cursor.since(), 0);
+		OrderEventFeed caughtUp = log.read(stale, 10);
+		verify(orderRepository).findChangedSince(cursor.since().minusNanos(OVERLAP_MS * 1_000_000), 0L, Limit.of(11));
+		assertThat(OrderEventFeed.decodeCursor(caughtUp.getCursor()))
+			.isEqualTo(new Cursor(cursor.epoch(), 3, cursor.since(), 0));
+
+		assertThatThrownBy(() -> OrderEventFeed.decodeCursor("not-a-cursor"))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static Order order(long id) {
+		User user = new User();
+		user.setId(1L);
+		Order order = new Order();
+		order.setId(id);
+		order.setUser(user);
+		order.setStatus(Order.Status.PENDING);
+		order.setUpdatedAt(LocalDateTime.now());
+		return order;
+	}
+}
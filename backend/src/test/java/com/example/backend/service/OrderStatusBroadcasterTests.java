@@ -0,0 +1,140 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderStatusEvent;
+import com.example.backend.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+class OrderStatusBroadcasterTests {
+
+	private static final int MAX_PENDING = 8;
+
+	private final ArrayDeque<TestEmitter> emitters = new ArrayDeque<>();
+	private final OrderStatusBroadcaster broadcaster = new OrderStatusBroadcaster(
+			new ObjectMapper().findAndRegisterModules(), mock(OrderEventLog.class),
+			60_000, 3_000, 100, 5, 1024, 500, 10, 2, MAX_PENDING) {
+		@Override
+		SseEmitter newEmitter() {
+			return emitters.remove();
+		}
+	};
+
+	@AfterEach
+	void tearDown() {
+		broadcaster.shutdown();
+	}
+
+	@Test
+	void stalledStreamDoesNotHoldUpOtherStreams() {
+		TestEmitter stalled = subscribe(1L);
+		TestEmitter healthy = subscribe(2L);
+		stalled.stall();
+
+		broadcaster.publish(event(100L, 1L));
+		await().atMost(Duration.ofSeconds(5)).until(stalled::isWriting);
+		for (long order = 200; order < 205; order++) {
+			broadcaster.publish(event(order, 2L));
+		}
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> healthy.written.size() == 5);
+		assertThat(stalled.written).isEmpty();
+		stalled.resume();
+	}
+
+	@Test
+	void streamThatStopsReadingIsClosedOnceItsOutboxIsFull() {
+		TestEmitter stalled = subscribe(1L);
+		TestEmitter healthy = subscribe(2L);
+		stalled.stall();
+
+		broadcaster.publish(event(100L, 1L));
+		await().atMost(Duration.ofSeconds(5)).until(stalled::isWriting);
+		for (long order = 101; order <= 101 + MAX_PENDING; order++) {
+			broadcaster.publish(event(order, 1L));
+		}
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> stats().get("slowClosed").equals(1L));
+		assertThat(stats().get("subscribers")).isEqualTo(1);
+		assertThat(stalled.completed).isFalse();
+
+		// The stuck write returns; the writer then ends the stream instead of sending the backlog
+		stalled.resume();
+		await().atMost(Duration.ofSeconds(5)).until(() -> stalled.completed);
+		assertThat(stalled.written).hasSize(1);
+
+		broadcaster.publish(event(300L, 2L));
+		await().atMost(Duration.ofSeconds(5)).until(() -> healthy.written.size() == 1);
+	}
+
+	private TestEmitter subscribe(Long userId) {
+		TestEmitter emitter = new TestEmitter();
+		emitters.add(emitter);
+		assertThat(broadcaster.subscribeUser(userId)).isSameAs(emitter);
+		// Counted from here on, after the reconnect hint sent on opening
+		emitter.written.clear();
+		return emitter;
+	}
+
+	private Map<String, Object> stats() {
+		return broadcaster.getStats();
+	}
+
+	private static OrderStatusEvent event(Long orderId, Long userId) {
+		return new OrderStatusEvent(orderId, userId, Order.Status.PREPARING, LocalDateTime.now());
+	}
+
+	// Records what is written; once stalled, a write blocks like a socket whose client stopped reading
+	private static class TestEmitter extends SseEmitter {
+		final List<Set<DataWithMediaType>> written = new CopyOnWriteArrayList<>();
+		private final CountDownLatch released = new CountDownLatch(1);
+		private volatile boolean stalled;
+		private volatile boolean writing;
+		volatile boolean completed;
+
+		void stall() {
+			stalled = true;
+		}
+
+		void resume() {
+			released.countDown();
+		}
+
+		boolean isWriting() {
+			return writing;
+		}
+
+		@Override
+		public void send(Set<DataWithMediaType> message) {
+			if (stalled) {
+				writing = true;
+				try {
+					released.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				writing = false;
+			}
+			written.add(message);
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+	}
+}
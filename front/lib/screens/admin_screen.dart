@@ -1,10 +1,12 @@
 import 'package:flutter/material.dart';
+import 'dart:async';
 import 'dart:convert';
 import 'package:http/http.dart' as http;
 import '../models/user.dart';
 import '../models/food_item.dart';
 import '../models/category.dart';
 import '../services/api_service.dart';
+import '../services/image_service.dart';
 
 class AdminScreen extends StatefulWidget {
   final User user;
@@ -21,7 +23,14 @@ class _AdminScreenState extends State<AdminScreen>
   List<FoodItem> _foodItems = [];
   List<Category> _categories = [];
   List<dynamic> _orders = [];
+  // Customer, address and lines of the orders opened so far, by order id
+  final Map<int, Map<String, dynamic>> _orderDetails = {};
+  String? _ordersCursor;
+  bool _isLoadingMoreOrders = false;
   Map<String, dynamic> _dashboardStats = {};
+  StreamSubscription<Map<String, dynamic>>? _orderEvents;
+  Timer? _reconnect;
+  String? _feedCursor;
 
   @override
   void initState() {
@@ -47,8 +56,10 @@ class _AdminScreenState extends State<AdminScreen>
         print('  - ${cat.name} (Active: ${cat.active})');
       }
       
-      final orders = await ApiService.getAllOrders();
-      print('Admin: Orders loaded: ${orders.length}');
+      // Taken before the orders so the feed replays anything placed while they load
+      final feedCursor = await ApiService.getOrderFeedCursor();
+      final orders = await ApiService.getOrderSummaries();
+      print('Admin: Orders loaded: ${orders['orders'].length}');
       
       final stats = await ApiService.getDashboardStats();
       print('Admin: Stats loaded: $stats');
@@ -56,9 +67,14 @@ class _AdminScreenState extends State<AdminScreen>
       setState(() {
         _foodItems = items;
         _categories = categories;
-        _orders = orders;
+        _orders = orders['orders'];
+        _ordersCursor = orders['nextCursor'];
+        _orderDetails.clear();
         _dashboardStats = stats;
       });
+      if (feedCursor != null) {
+        _followOrders(feedCursor);
+      }
       
       print('Admin: UI updated with new data');
     } catch (e, stackTrace) {
@@ -70,6 +86,75 @@ class _AdminScreenState extends State<AdminScreen>
     }
   }
 
+  void _followOrders(String cursor) {
+    _orderEvents?.cancel();
+    _reconnect?.cancel();
+    _feedCursor = cursor;
+    _orderEvents = ApiService.orderFeedEvents(cursor).listen(
+      _applyOrderEvent,
+      onError: (_) => _scheduleReconnect(),
+      onDone: _scheduleReconnect,
+      cancelOnError: true,
+    );
+  }
+
+  // Resumes from the last event seen; the server replays whatever was missed
+  void _scheduleReconnect() {
+    if (!mounted) return;
+    _reconnect = Timer(const Duration(seconds: 3), () => _followOrders(_feedCursor!));
+  }
+
+  Future<void> _applyOrderEvent(Map<String, dynamic> event) async {
+    _feedCursor = event['cursor'] ?? _feedCursor;
+    final index = _orders.indexWhere((order) => order['id'] == event['orderId']);
+    if (index >= 0) {
+      setState(() {
+        _orders[index]['status'] = event['status'];
+        _orders[index]['updatedAt'] = event['updatedAt'];
+      });
+      return;
+    }
+    // A new order: the event only carries its status, so fetch the rest
+    final order = await ApiService.getOrder(event['orderId']);
+    if (order == null || !mounted) return;
+    if (_orders.any((existing) => existing['id'] == order['id'])) return;
+    setState(() {
+      _orderDetails[order['id']] = order;
+      _orders.insert(0, {
+        'id': order['id'],
+        'userId': order['userId'],
+        'userName': order['customerName'],
+        'status': order['status'],
+        'orderType': order['orderType'],
+        'paymentMethod': order['paymentMethod'],
+        'totalAmount': order['totalAmount'],
+        'createdAt': order['createdAt'],
+        'itemCount': order['items'].length,
+      });
+    });
+  }
+
+  Future<void> _loadMoreOrders() async {
+    if (_isLoadingMoreOrders || _ordersCursor == null) return;
+    setState(() => _isLoadingMoreOrders = true);
+    final page = await ApiService.getOrderSummaries(cursor: _ordersCursor);
+    if (!mounted) return;
+    setState(() {
+      // Orders the feed inserted meanwhile may show up again on a later page
+      final known = _orders.map((order) => order['id']).toSet();
+      _orders.addAll(page['orders'].where((order) => !known.contains(order['id'])));
+      _ordersCursor = page['nextCursor'];
+      _isLoadingMoreOrders = false;
+    });
+  }
+
+  Future<void> _loadOrderDetails(int orderId) async {
+    if (_orderDetails.containsKey(orderId)) return;
+    final order = await ApiService.getOrder(orderId);
+    if (order == null || !mounted) return;
+    setState(() => _orderDetails[orderId] = order);
+  }
+
   @override
   Widget build(BuildContext context) {
     return Scaffold(
@@ -79,7 +164,10 @@ class _AdminScreenState extends State<AdminScreen>
           IconButton(icon: const Icon(Icons.refresh), onPressed: _loadData),
           IconButton(
             icon: const Icon(Icons.logout),
-            onPressed: () => Navigator.pushReplacementNamed(context, '/'),
+            onPressed: () {
+              ApiService.logout();
+              Navigator.pushReplacementNamed(context, '/');
+            },
           ),
         ],
         bottom: TabBar(
@@ -164,7 +252,7 @@ class _AdminScreenState extends State<AdminScreen>
                         (order) => ListTile(
                           title: Text('Order #${order['id']}'),
                           subtitle: Text(
-                            '${order['user']['name']} - \$${order['totalAmount'].toStringAsFixed(2)}',
+                            '${order['userName']} - \$${order['totalAmount'].toStringAsFixed(2)}',
                           ),
                           trailing: Chip(
                             label: Text(order['status']),
@@ -265,7 +353,7 @@ class _AdminScreenState extends State<AdminScreen>
                       image:
                           item.imageUrl != null
                               ? DecorationImage(
-                                image: NetworkImage(item.imageUrl!),
+                                image: NetworkImage(ImageService.sized(context, item.imageUrl!, 50)),
                                 fit: BoxFit.cover,
                               )
                               : null,
@@ -419,15 +507,33 @@ class _AdminScreenState extends State<AdminScreen>
         ),
         Expanded(
           child: ListView.builder(
-            itemCount: _orders.length,
+            itemCount: _orders.length + (_ordersCursor != null ? 1 : 0),
             itemBuilder: (context, index) {
+              if (index == _orders.length) {
+                return Padding(
+                  padding: const EdgeInsets.all(8),
+                  child: Center(
+                    child:
+                        _isLoadingMoreOrders
+                            ? const CircularProgressIndicator()
+                            : TextButton(
+                              onPressed: _loadMoreOrders,
+                              child: const Text('Load more'),
+                            ),
+                  ),
+                );
+              }
               final order = _orders[index];
+              final details = _orderDetails[order['id']];
               return Card(
                 margin: const EdgeInsets.symmetric(horizontal: 16, vertical: 4),
                 child: ExpansionTile(
+                  onExpansionChanged: (expanded) {
+                    if (expanded) _loadOrderDetails(order['id']);
+                  },
                   title: Text('Order #${order['id']}'),
                   subtitle: Text(
-                    '${order['user']['name']} - \$${order['totalAmount'].toStringAsFixed(2)}',
+                    '${order['userName']} - \$${order['totalAmount'].toStringAsFixed(2)}',
                   ),
                   leading: CircleAvatar(
                     backgroundColor: _getStatusColor(order['status']),
@@ -456,33 +562,39 @@ class _AdminScreenState extends State<AdminScreen>
                             _updateOrderStatus(order['id'], newStatus!),
                   ),
                   children: [
-                    Padding(
-                      padding: const EdgeInsets.all(16),
-                      child: Column(
-                        crossAxisAlignment: CrossAxisAlignment.start,
-                        children: [
-                          Text('Customer: ${order['user']['name']}'),
-                          Text('Email: ${order['user']['email']}'),
-                          Text(
-                            'Order Type: ${order['orderType'] ?? 'DELIVERY'}',
-                          ),
-                          Text('Payment: ${order['paymentMethod'] ?? 'COD'}'),
-                          if (order['deliveryAddress'] != null)
-                            Text('Address: ${order['deliveryAddress']}'),
-                          const SizedBox(height: 8),
-                          const Text(
-                            'Items:',
-                            style: TextStyle(fontWeight: FontWeight.bold),
-                          ),
-                          ...List.generate(order['items'].length, (itemIndex) {
-                            final item = order['items'][itemIndex];
-                            return Text(
-                              '• ${item['foodItem']['name']} x${item['quantity']} - \$${(item['price'] * item['quantity']).toStringAsFixed(2)}',
-                            );
-                          }),
-                        ],
+                    if (details == null)
+                      const Padding(
+                        padding: EdgeInsets.all(16),
+                        child: Center(child: CircularProgressIndicator()),
+                      )
+                    else
+                      Padding(
+                        padding: const EdgeInsets.all(16),
+                        child: Column(
+                          crossAxisAlignment: CrossAxisAlignment.start,
+                          children: [
+                            Text('Customer: ${details['customerName']}'),
+                            Text('Email: ${details['customerEmail']}'),
+                            Text(
+                              'Order Type: ${order['orderType'] ?? 'DELIVERY'}',
+                            ),
+                            Text('Payment: ${order['paymentMethod'] ?? 'COD'}'),
+                            if (details['deliveryAddress'] != null)
+                              Text('Address: ${details['deliveryAddress']}'),
+                            const SizedBox(height: 8),
+                            const Text(
+                              'Items:',
+                              style: TextStyle(fontWeight: FontWeight.bold),
+                            ),
+                            ...List.generate(details['items'].length, (itemIndex) {
+                              final item = details['items'][itemIndex];
+                              return Text(
+                                '• ${item['foodItemName']} x${item['quantity']} - \$${(item['price'] * item['quantity']).toStringAsFixed(2)}',
+                              );
+                            }),
+                          ],
+                        ),
                       ),
-                    ),
                   ],
                 ),
               );
@@ -582,7 +694,7 @@ class _AdminScreenState extends State<AdminScreen>
                               borderRadius: BorderRadius.circular(8),
                             ),
                             child: Image.network(
-                              imageUrl!,
+                              ImageService.sized(context, imageUrl!, 100),
                               fit: BoxFit.cover,
                               errorBuilder:
                                   (_, __, ___) => const Icon(Icons.error),
@@ -720,13 +832,13 @@ class _AdminScreenState extends State<AdminScreen>
       if (id == null) {
         response = await http.post(
           Uri.parse('${ApiService.baseUrl}/$url'),
-          headers: {'Content-Type': 'application/json'},
+          headers: {'Content-Type': 'application/json', ...ApiService.authHeaders()},
           body: jsonEncode(data),
         );
       } else {
         response = await http.put(
           Uri.parse('${ApiService.baseUrl}/$url'),
-          headers: {'Content-Type': 'application/json'},
+          headers: {'Content-Type': 'application/json', ...ApiService.authHeaders()},
           body: jsonEncode(data),
         );
       }
@@ -791,7 +903,7 @@ class _AdminScreenState extends State<AdminScreen>
                               borderRadius: BorderRadius.circular(8),
                             ),
                             child: Image.network(
-                              imageUrl!,
+                              ImageService.sized(context, imageUrl!, 100),
                               fit: BoxFit.cover,
                               errorBuilder:
                                   (_, __, ___) => const Icon(Icons.error),
@@ -911,13 +1023,13 @@ class _AdminScreenState extends State<AdminScreen>
       if (id == null) {
         response = await http.post(
           Uri.parse('${ApiService.baseUrl}/$url'),
-          headers: {'Content-Type': 'application/json'},
+          headers: {'Content-Type': 'application/json', ...ApiService.authHeaders()},
           body: jsonEncode(data),
         );
       } else {
         response = await http.put(
           Uri.parse('${ApiService.baseUrl}/$url'),
-          headers: {'Content-Type': 'application/json'},
+          headers: {'Content-Type': 'application/json', ...ApiService.authHeaders()},
           body: jsonEncode(data),
         );
       }
@@ -956,7 +1068,7 @@ class _AdminScreenState extends State<AdminScreen>
 
       final response = await http.put(
         Uri.parse('${ApiService.baseUrl}/food/${item.id}'),
-        headers: {'Content-Type': 'application/json'},
+        headers: {'Content-Type': 'application/json', ...ApiService.authHeaders()},
         body: jsonEncode(data),
       );
 
@@ -984,7 +1096,7 @@ class _AdminScreenState extends State<AdminScreen>
 
       final response = await http.put(
         Uri.parse('${ApiService.baseUrl}/categories/${category.id}'),
-        headers: {'Content-Type': 'application/json'},
+        headers: {'Content-Type': 'application/json', ...ApiService.authHeaders()},
         body: jsonEncode(data),
       );
 
@@ -1066,6 +1178,8 @@ class _AdminScreenState extends State<AdminScreen>
 
   @override
   void dispose() {
+    _orderEvents?.cancel();
+    _reconnect?.cancel();
     _tabController.dispose();
     super.dispose();
   }
@@ -5,6 +5,7 @@ import '../providers/cart_provider.dart';
 import '../services/api_service.dart';
 import '../widgets/custom_button.dart';
 import 'checkout_screen.dart';
+import '../services/image_service.dart';
 
 class CartScreen extends StatefulWidget {
   final User user;
@@ -56,7 +57,7 @@ class _CartScreenState extends State<CartScreen> {
                             borderRadius: BorderRadius.circular(8),
                             image: cartItem.foodItem.imageUrl != null
                                 ? DecorationImage(
-                                    image: NetworkImage(cartItem.foodItem.imageUrl!),
+                                    image: NetworkImage(ImageService.sized(context, cartItem.foodItem.imageUrl!, 60)),
                                     fit: BoxFit.cover,
                                   )
                                 : null,
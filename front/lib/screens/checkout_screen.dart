@@ -215,6 +215,7 @@ class _CheckoutScreenState extends State<CheckoutScreen> {
       orderType: _orderType,
       paymentMethod: _paymentMethod,
       address: _orderType == 'DELIVERY' ? _addressController.text.trim() : null,
+      couponCode: cart.appliedCoupon?.code,
     );
 
     setState(() => _isLoading = false);
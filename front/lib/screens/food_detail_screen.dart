@@ -4,6 +4,7 @@ import '../models/food_item.dart';
 import '../models/user.dart';
 import '../providers/cart_provider.dart';
 import '../services/api_service.dart';
+import '../services/image_service.dart';
 
 class FoodDetailScreen extends StatefulWidget {
   final FoodItem foodItem;
@@ -30,7 +31,7 @@ class _FoodDetailScreenState extends State<FoodDetailScreen> {
     // Check if item is in wishlist
     final wishlist = await ApiService.getUserWishlist(widget.user.id);
     setState(() {
-      _isFavorite = wishlist.any((item) => item['foodItem']['id'] == widget.foodItem.id);
+      _isFavorite = wishlist.any((item) => item['id'] == widget.foodItem.id);
     });
   }
 
@@ -45,7 +46,8 @@ class _FoodDetailScreenState extends State<FoodDetailScreen> {
             flexibleSpace: FlexibleSpaceBar(
               background: widget.foodItem.imageUrl != null
                   ? Image.network(
-                      widget.foodItem.imageUrl!,
+                      ImageService.sized(context, widget.foodItem.imageUrl!,
+                          MediaQuery.of(context).size.width),
                       fit: BoxFit.cover,
                     )
                   : Container(
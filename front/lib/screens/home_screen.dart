@@ -281,6 +281,7 @@ class _HomeScreenState extends State<HomeScreen> with TickerProviderStateMixin {
                                         );
                                         break;
                                       case 'logout':
+                                        ApiService.logout();
                                         Navigator.pushReplacementNamed(
                                           context,
                                           '/',
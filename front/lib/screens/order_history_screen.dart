@@ -1,3 +1,4 @@
+import 'dart:async';
 import 'package:flutter/material.dart';
 import '../models/user.dart';
 import '../services/api_service.dart';
@@ -13,22 +14,86 @@ class OrderHistoryScreen extends StatefulWidget {
 
 class _OrderHistoryScreenState extends State<OrderHistoryScreen> {
   List<dynamic> _orders = [];
+  // Lines and addresses of the orders opened so far, by order id
+  final Map<int, Map<String, dynamic>> _details = {};
+  String? _nextCursor;
   bool _isLoading = true;
+  bool _isLoadingMore = false;
+  StreamSubscription<Map<String, dynamic>>? _statusEvents;
+  Timer? _reconnect;
 
   @override
   void initState() {
     super.initState();
+    // Subscribe before loading so no change falls between the two
+    _listenForStatusChanges();
     _loadOrders();
   }
 
+  @override
+  void dispose() {
+    _statusEvents?.cancel();
+    _reconnect?.cancel();
+    super.dispose();
+  }
+
   Future<void> _loadOrders() async {
-    final orders = await ApiService.getUserOrders(widget.user.id);
+    final page = await ApiService.getUserOrderSummaries(widget.user.id);
+    if (!mounted) return;
     setState(() {
-      _orders = orders;
+      _orders = page['orders'];
+      _nextCursor = page['nextCursor'];
+      _details.clear();
       _isLoading = false;
     });
   }
 
+  Future<void> _loadMoreOrders() async {
+    if (_isLoadingMore || _nextCursor == null) return;
+    setState(() => _isLoadingMore = true);
+    final page = await ApiService.getUserOrderSummaries(widget.user.id, cursor: _nextCursor);
+    if (!mounted) return;
+    setState(() {
+      _orders.addAll(page['orders']);
+      _nextCursor = page['nextCursor'];
+      _isLoadingMore = false;
+    });
+  }
+
+  Future<void> _loadDetails(int orderId) async {
+    if (_details.containsKey(orderId)) return;
+    final order = await ApiService.getOrder(orderId);
+    if (order == null || !mounted) return;
+    setState(() => _details[orderId] = order);
+  }
+
+  void _listenForStatusChanges() {
+    _statusEvents = ApiService.orderStatusEvents(widget.user.id).listen(
+      _applyStatusChange,
+      onError: (_) => _scheduleReconnect(),
+      onDone: _scheduleReconnect,
+      cancelOnError: true,
+    );
+  }
+
+  // Changes made while disconnected are missed, so the history is reloaded once on reconnect
+  void _scheduleReconnect() {
+    if (!mounted) return;
+    _reconnect = Timer(const Duration(seconds: 3), () {
+      _listenForStatusChanges();
+      _loadOrders();
+    });
+  }
+
+  void _applyStatusChange(Map<String, dynamic> change) {
+    final index = _orders.indexWhere((order) => order['id'] == change['orderId']);
+    if (index < 0) return;
+    setState(() {
+      _orders[index]['status'] = change['status'];
+      _orders[index]['updatedAt'] = change['updatedAt'];
+    });
+  }
+
   @override
   Widget build(BuildContext context) {
     return Scaffold(
@@ -53,12 +118,29 @@ class _OrderHistoryScreenState extends State<OrderHistoryScreen> {
               : RefreshIndicator(
                   onRefresh: _loadOrders,
                   child: ListView.builder(
-                    itemCount: _orders.length,
+                    itemCount: _orders.length + (_nextCursor != null ? 1 : 0),
                     itemBuilder: (context, index) {
+                      if (index == _orders.length) {
+                        return Padding(
+                          padding: const EdgeInsets.all(8),
+                          child: Center(
+                            child: _isLoadingMore
+                                ? const CircularProgressIndicator()
+                                : TextButton(
+                                    onPressed: _loadMoreOrders,
+                                    child: const Text('Load more'),
+                                  ),
+                          ),
+                        );
+                      }
                       final order = _orders[index];
+                      final details = _details[order['id']];
                       return Card(
                         margin: const EdgeInsets.all(8),
                         child: ExpansionTile(
+                          onExpansionChanged: (expanded) {
+                            if (expanded) _loadDetails(order['id']);
+                          },
                           title: Text('Order #${order['id']}'),
                           subtitle: Column(
                             crossAxisAlignment: CrossAxisAlignment.start,
@@ -76,77 +158,83 @@ class _OrderHistoryScreenState extends State<OrderHistoryScreen> {
                             ),
                           ),
                           children: [
-                            Padding(
-                              padding: const EdgeInsets.all(16),
-                              child: Column(
-                                crossAxisAlignment: CrossAxisAlignment.start,
-                                children: [
-                                  const Text(
-                                    'Order Items:',
-                                    style: TextStyle(fontWeight: FontWeight.bold),
-                                  ),
-                                  const SizedBox(height: 8),
-                                  ...List.generate(
-                                    order['items'].length,
-                                    (itemIndex) {
-                                      final item = order['items'][itemIndex];
-                                      return Padding(
-                                        padding: const EdgeInsets.symmetric(vertical: 4),
-                                        child: Row(
-                                          mainAxisAlignment: MainAxisAlignment.spaceBetween,
-                                          children: [
-                                            Expanded(
-                                              child: Text(
-                                                '${item['foodItem']['name']} x${item['quantity']}',
+                            if (details == null)
+                              const Padding(
+                                padding: EdgeInsets.all(16),
+                                child: Center(child: CircularProgressIndicator()),
+                              )
+                            else
+                              Padding(
+                                padding: const EdgeInsets.all(16),
+                                child: Column(
+                                  crossAxisAlignment: CrossAxisAlignment.start,
+                                  children: [
+                                    const Text(
+                                      'Order Items:',
+                                      style: TextStyle(fontWeight: FontWeight.bold),
+                                    ),
+                                    const SizedBox(height: 8),
+                                    ...List.generate(
+                                      details['items'].length,
+                                      (itemIndex) {
+                                        final item = details['items'][itemIndex];
+                                        return Padding(
+                                          padding: const EdgeInsets.symmetric(vertical: 4),
+                                          child: Row(
+                                            mainAxisAlignment: MainAxisAlignment.spaceBetween,
+                                            children: [
+                                              Expanded(
+                                                child: Text(
+                                                  '${item['foodItemName']} x${item['quantity']}',
+                                                ),
                                               ),
-                                            ),
-                                            Text('\$${(item['price'] * item['quantity']).toStringAsFixed(2)}'),
-                                          ],
-                                        ),
-                                      );
-                                    },
-                                  ),
-                                  const Divider(),
-                                  Row(
-                                    mainAxisAlignment: MainAxisAlignment.spaceBetween,
-                                    children: [
-                                      const Text('Order Type:'),
-                                      Text(order['orderType'] ?? 'DELIVERY'),
+                                              Text('\$${(item['price'] * item['quantity']).toStringAsFixed(2)}'),
+                                            ],
+                                          ),
+                                        );
+                                      },
+                                    ),
+                                    const Divider(),
+                                    Row(
+                                      mainAxisAlignment: MainAxisAlignment.spaceBetween,
+                                      children: [
+                                        const Text('Order Type:'),
+                                        Text(order['orderType'] ?? 'DELIVERY'),
+                                      ],
+                                    ),
+                                    Row(
+                                      mainAxisAlignment: MainAxisAlignment.spaceBetween,
+                                      children: [
+                                        const Text('Payment:'),
+                                        Text(order['paymentMethod'] ?? 'COD'),
+                                      ],
+                                    ),
+                                    if (details['deliveryAddress'] != null) ...[
+                                      const SizedBox(height: 8),
+                                      const Text('Delivery Address:', style: TextStyle(fontWeight: FontWeight.bold)),
+                                      Text(details['deliveryAddress']),
                                     ],
-                                  ),
-                                  Row(
-                                    mainAxisAlignment: MainAxisAlignment.spaceBetween,
-                                    children: [
-                                      const Text('Payment:'),
-                                      Text(order['paymentMethod'] ?? 'COD'),
-                                    ],
-                                  ),
-                                  if (order['deliveryAddress'] != null) ...[
-                                    const SizedBox(height: 8),
-                                    const Text('Delivery Address:', style: TextStyle(fontWeight: FontWeight.bold)),
-                                    Text(order['deliveryAddress']),
-                                  ],
-                                  const SizedBox(height: 16),
-                                  Row(
-                                    children: [
-                                      Expanded(
-                                        child: OutlinedButton(
-                                          onPressed: () => _reorder(order),
-                                          child: const Text('Reorder'),
+                                    const SizedBox(height: 16),
+                                    Row(
+                                      children: [
+                                        Expanded(
+                                          child: OutlinedButton(
+                                            onPressed: () => _reorder(order),
+                                            child: const Text('Reorder'),
+                                          ),
                                         ),
-                                      ),
-                                      const SizedBox(width: 8),
-                                      Expanded(
-                                        child: ElevatedButton(
-                                          onPressed: () => _trackOrder(order),
-                                          child: const Text('Track Order'),
+                                        const SizedBox(width: 8),
+                                        Expanded(
+                                          child: ElevatedButton(
+                                            onPressed: () => _trackOrder(order),
+                                            child: const Text('Track Order'),
+                                          ),
                                         ),
-                                      ),
-                                    ],
-                                  ),
-                                ],
+                                      ],
+                                    ),
+                                  ],
+                                ),
                               ),
-                            ),
                           ],
                         ),
                       );
@@ -4,6 +4,7 @@ import '../models/user.dart';
 import '../models/food_item.dart';
 import '../services/api_service.dart';
 import '../providers/cart_provider.dart';
+import '../services/image_service.dart';
 
 class WishlistScreen extends StatefulWidget {
   final User user;
@@ -57,7 +58,7 @@ class _WishlistScreenState extends State<WishlistScreen> {
                   itemCount: _wishlistItems.length,
                   itemBuilder: (context, index) {
                     final wishlistItem = _wishlistItems[index];
-                    final foodItem = FoodItem.fromJson(wishlistItem['foodItem']);
+                    final foodItem = FoodItem.fromJson(wishlistItem);
                     
                     return Card(
                       margin: const EdgeInsets.all(8),
@@ -69,7 +70,7 @@ class _WishlistScreenState extends State<WishlistScreen> {
                             borderRadius: BorderRadius.circular(8),
                             image: foodItem.imageUrl != null
                                 ? DecorationImage(
-                                    image: NetworkImage(foodItem.imageUrl!),
+                                    image: NetworkImage(ImageService.sized(context, foodItem.imageUrl!, 60)),
                                     fit: BoxFit.cover,
                                   )
                                 : null,
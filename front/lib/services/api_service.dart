@@ -8,17 +8,34 @@ import '../models/coupon.dart';
 class ApiService {
   static const String baseUrl = 'http://localhost:8080/api';
 
+  // Bearer token from the last login or registration
+  static String? _token;
+
+  static Map<String, String> authHeaders() {
+    return _token != null ? {'Authorization': 'Bearer $_token'} : {};
+  }
+
+  static Map<String, String> _jsonHeaders() {
+    return {'Content-Type': 'application/json', ...authHeaders()};
+  }
+
+  static void logout() {
+    _token = null;
+  }
+
   // Auth APIs
   static Future<User?> login(String email, String password) async {
     try {
       final response = await http.post(
         Uri.parse('$baseUrl/auth/login'),
-        headers: {'Content-Type': 'application/json'},
+        headers: _jsonHeaders(),
         body: jsonEncode({'email': email, 'password': password}),
       );
 
       if (response.statusCode == 200) {
-        return User.fromJson(jsonDecode(response.body));
+        final data = jsonDecode(response.body);
+        _token = data['token'];
+        return User.fromJson(data);
       }
       print('Login failed: ${response.statusCode} - ${response.body}');
     } catch (e) {
@@ -30,19 +47,21 @@ class ApiService {
   static Future<User?> register(String email, String password, String name) async {
     final response = await http.post(
       Uri.parse('$baseUrl/auth/register'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({'email': email, 'password': password, 'name': name}),
     );
 
     if (response.statusCode == 200) {
-      return User.fromJson(jsonDecode(response.body));
+      final data = jsonDecode(response.body);
+      _token = data['token'];
+      return User.fromJson(data);
     }
     return null;
   }
 
   // Category APIs
   static Future<List<Category>> getCategories() async {
-    final response = await http.get(Uri.parse('$baseUrl/categories'));
+    final response = await http.get(Uri.parse('$baseUrl/categories'), headers: authHeaders());
     if (response.statusCode == 200) {
       List<dynamic> data = jsonDecode(response.body);
       return data.map((item) => Category.fromJson(item)).toList();
@@ -53,7 +72,7 @@ class ApiService {
   static Future<List<Category>> getAllCategoriesForAdmin() async {
     try {
       print('API: Fetching admin categories from $baseUrl/categories/admin');
-      final response = await http.get(Uri.parse('$baseUrl/categories/admin'));
+      final response = await http.get(Uri.parse('$baseUrl/categories/admin'), headers: authHeaders());
       print('API: Categories response status: ${response.statusCode}');
       print('API: Categories response body: ${response.body}');
       
@@ -72,7 +91,7 @@ class ApiService {
 
   // Food APIs
   static Future<List<FoodItem>> getFoodItems() async {
-    final response = await http.get(Uri.parse('$baseUrl/food'));
+    final response = await http.get(Uri.parse('$baseUrl/food'), headers: authHeaders());
     if (response.statusCode == 200) {
       List<dynamic> data = jsonDecode(response.body);
       return data.map((item) => FoodItem.fromJson(item)).toList();
@@ -83,7 +102,7 @@ class ApiService {
   static Future<List<FoodItem>> getAllFoodItemsForAdmin() async {
     try {
       print('API: Fetching admin food items from $baseUrl/food/admin');
-      final response = await http.get(Uri.parse('$baseUrl/food/admin'));
+      final response = await http.get(Uri.parse('$baseUrl/food/admin'), headers: authHeaders());
       print('API: Food items response status: ${response.statusCode}');
       print('API: Food items response body: ${response.body}');
       
@@ -101,7 +120,7 @@ class ApiService {
   }
 
   static Future<List<FoodItem>> searchFoodItems(String query) async {
-    final response = await http.get(Uri.parse('$baseUrl/food/search?query=$query'));
+    final response = await http.get(Uri.parse('$baseUrl/food/search?query=$query'), headers: authHeaders());
     if (response.statusCode == 200) {
       List<dynamic> data = jsonDecode(response.body);
       return data.map((item) => FoodItem.fromJson(item)).toList();
@@ -110,7 +129,7 @@ class ApiService {
   }
 
   static Future<List<FoodItem>> getFoodByCategory(int categoryId) async {
-    final response = await http.get(Uri.parse('$baseUrl/food/category/$categoryId'));
+    final response = await http.get(Uri.parse('$baseUrl/food/category/$categoryId'), headers: authHeaders());
     if (response.statusCode == 200) {
       List<dynamic> data = jsonDecode(response.body);
       return data.map((item) => FoodItem.fromJson(item)).toList();
@@ -119,7 +138,7 @@ class ApiService {
   }
 
   static Future<List<FoodItem>> getTopRatedFood() async {
-    final response = await http.get(Uri.parse('$baseUrl/food/top-rated'));
+    final response = await http.get(Uri.parse('$baseUrl/food/top-rated'), headers: authHeaders());
     if (response.statusCode == 200) {
       List<dynamic> data = jsonDecode(response.body);
       return data.map((item) => FoodItem.fromJson(item)).toList();
@@ -130,7 +149,7 @@ class ApiService {
   static Future<bool> addFoodItem(FoodItem item) async {
     final response = await http.post(
       Uri.parse('$baseUrl/food'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode(item.toJson()),
     );
     return response.statusCode == 200;
@@ -139,14 +158,14 @@ class ApiService {
   static Future<bool> updateFoodItem(int id, FoodItem item) async {
     final response = await http.put(
       Uri.parse('$baseUrl/food/$id'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode(item.toJson()),
     );
     return response.statusCode == 200;
   }
 
   static Future<bool> deleteFoodItem(int id) async {
-    final response = await http.delete(Uri.parse('$baseUrl/food/$id'));
+    final response = await http.delete(Uri.parse('$baseUrl/food/$id'), headers: authHeaders());
     return response.statusCode == 200;
   }
 
@@ -154,7 +173,7 @@ class ApiService {
   static Future<Coupon?> validateCoupon(String code) async {
     final response = await http.post(
       Uri.parse('$baseUrl/coupons/validate'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({'code': code}),
     );
     if (response.statusCode == 200) {
@@ -165,7 +184,7 @@ class ApiService {
 
   // Wishlist APIs
   static Future<List<dynamic>> getUserWishlist(int userId) async {
-    final response = await http.get(Uri.parse('$baseUrl/wishlist/user/$userId'));
+    final response = await http.get(Uri.parse('$baseUrl/wishlist/user/$userId'), headers: authHeaders());
     if (response.statusCode == 200) {
       return jsonDecode(response.body);
     }
@@ -175,7 +194,7 @@ class ApiService {
   static Future<bool> addToWishlist(int userId, int foodItemId) async {
     final response = await http.post(
       Uri.parse('$baseUrl/wishlist'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({'userId': userId, 'foodItemId': foodItemId}),
     );
     return response.statusCode == 200;
@@ -184,6 +203,7 @@ class ApiService {
   static Future<bool> removeFromWishlist(int userId, int foodItemId) async {
     final response = await http.delete(
       Uri.parse('$baseUrl/wishlist/user/$userId/item/$foodItemId'),
+      headers: authHeaders(),
     );
     return response.statusCode == 200;
   }
@@ -192,7 +212,7 @@ class ApiService {
   static Future<bool> addRating(int userId, int foodItemId, int rating, String comment) async {
     final response = await http.post(
       Uri.parse('$baseUrl/ratings'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({
         'userId': userId,
         'foodItemId': foodItemId,
@@ -205,52 +225,112 @@ class ApiService {
 
   // Order APIs
   static Future<bool> createOrder(int userId, List<Map<String, dynamic>> items, 
-      {String orderType = 'DELIVERY', String paymentMethod = 'COD', String? address}) async {
+      {String orderType = 'DELIVERY', String paymentMethod = 'COD', String? address, String? couponCode}) async {
     final response = await http.post(
       Uri.parse('$baseUrl/orders'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({
         'userId': userId,
         'items': items,
         'orderType': orderType,
         'paymentMethod': paymentMethod,
         'deliveryAddress': address,
+        'couponCode': couponCode,
       }),
     );
     return response.statusCode == 200;
   }
 
-  static Future<List<dynamic>> getUserOrders(int userId) async {
-    final response = await http.get(Uri.parse('$baseUrl/orders/user/$userId'));
+  // A page of the user's orders, newest first, without their lines; pass nextCursor back
+  // for the following page and load an order with getOrder when it is opened
+  static Future<Map<String, dynamic>> getUserOrderSummaries(int userId, {String? cursor}) {
+    return _getOrderSummaries('/orders/user/$userId/summaries', cursor);
+  }
+
+  // Status changes of the user's orders as Server-Sent Events; the stream ends when the
+  // connection drops, and changes made while disconnected are not replayed
+  static Stream<Map<String, dynamic>> orderStatusEvents(int userId) {
+    return _serverSentEvents('/orders/user/$userId/events')
+        .where((message) => message.event == 'status')
+        .map((message) => jsonDecode(message.data) as Map<String, dynamic>);
+  }
+
+  // Kitchen feed of every order placed or changed after cursor (admin only). Each event
+  // carries the cursor to reconnect with, so a dropped connection resumes without gaps.
+  static Stream<Map<String, dynamic>> orderFeedEvents(String cursor) {
+    return _serverSentEvents('/orders/events?cursor=${Uri.encodeQueryComponent(cursor)}')
+        .where((message) => message.event == 'order')
+        .map((message) => {...jsonDecode(message.data) as Map<String, dynamic>, 'cursor': message.id});
+  }
+
+  // Current end of the kitchen feed; following it from here after loading the orders
+  // misses nothing placed in between
+  static Future<String?> getOrderFeedCursor() async {
+    final response = await http.get(Uri.parse('$baseUrl/orders/feed'), headers: authHeaders());
+    if (response.statusCode == 200) {
+      return jsonDecode(response.body)['cursor'];
+    }
+    return null;
+  }
+
+  static Future<Map<String, dynamic>?> getOrder(int orderId) async {
+    final response = await http.get(Uri.parse('$baseUrl/orders/$orderId'), headers: authHeaders());
     if (response.statusCode == 200) {
       return jsonDecode(response.body);
     }
-    return [];
+    return null;
   }
 
-  static Future<List<dynamic>> getAllOrders() async {
+  static Stream<({String? id, String? event, String data})> _serverSentEvents(String path) async* {
+    final client = http.Client();
     try {
-      print('API: Fetching all orders from $baseUrl/orders');
-      final response = await http.get(Uri.parse('$baseUrl/orders'));
-      print('API: Orders response status: ${response.statusCode}');
-      print('API: Orders response body: ${response.body}');
-      
-      if (response.statusCode == 200) {
-        final orders = jsonDecode(response.body);
-        print('API: Parsed ${orders.length} orders');
-        return orders;
+      final request = http.Request('GET', Uri.parse('$baseUrl$path'));
+      request.headers.addAll({...authHeaders(), 'Accept': 'text/event-stream'});
+      final response = await client.send(request);
+      if (response.statusCode != 200) {
+        throw http.ClientException('Event stream failed: ${response.statusCode}');
       }
-      print('API: Orders request failed with status ${response.statusCode}');
-    } catch (e) {
-      print('API: Error fetching orders: $e');
+      String? id;
+      String? event;
+      final data = StringBuffer();
+      await for (final line in response.stream.transform(utf8.decoder).transform(const LineSplitter())) {
+        if (line.isEmpty) {
+          if (data.isNotEmpty) {
+            yield (id: id, event: event, data: data.toString());
+          }
+          event = null;
+          data.clear();
+        } else if (line.startsWith('id:')) {
+          id = line.substring(3).trim();
+        } else if (line.startsWith('event:')) {
+          event = line.substring(6).trim();
+        } else if (line.startsWith('data:')) {
+          data.write(line.substring(5).trim());
+        }
+      }
+    } finally {
+      client.close();
     }
-    return [];
+  }
+
+  // A page of every customer's orders, as getUserOrderSummaries (admin only)
+  static Future<Map<String, dynamic>> getOrderSummaries({String? cursor}) {
+    return _getOrderSummaries('/orders/summaries', cursor);
+  }
+
+  static Future<Map<String, dynamic>> _getOrderSummaries(String path, String? cursor) async {
+    final query = cursor != null ? '?cursor=${Uri.encodeQueryComponent(cursor)}' : '';
+    final response = await http.get(Uri.parse('$baseUrl$path$query'), headers: authHeaders());
+    if (response.statusCode == 200) {
+      return jsonDecode(response.body);
+    }
+    return {'orders': [], 'nextCursor': null};
   }
 
   static Future<bool> updateOrderStatus(int orderId, String status) async {
     final response = await http.put(
       Uri.parse('$baseUrl/orders/$orderId/status'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({'status': status}),
     );
     return response.statusCode == 200;
@@ -260,7 +340,7 @@ class ApiService {
   static Future<Map<String, dynamic>> getDashboardStats() async {
     try {
       print('API: Fetching dashboard stats from $baseUrl/reports/dashboard');
-      final response = await http.get(Uri.parse('$baseUrl/reports/dashboard'));
+      final response = await http.get(Uri.parse('$baseUrl/reports/dashboard'), headers: authHeaders());
       print('API: Dashboard stats response status: ${response.statusCode}');
       print('API: Dashboard stats response body: ${response.body}');
       
@@ -280,7 +360,7 @@ class ApiService {
   static Future<bool> updateUserProfile(int userId, String name, String phone, String address) async {
     final response = await http.put(
       Uri.parse('$baseUrl/users/$userId'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({
         'name': name,
         'phone': phone,
@@ -294,7 +374,7 @@ class ApiService {
   static Future<bool> createFirstAdmin(String email, String password, String name) async {
     final response = await http.post(
       Uri.parse('$baseUrl/admin/create-first-admin'),
-      headers: {'Content-Type': 'application/json'},
+      headers: _jsonHeaders(),
       body: jsonEncode({'email': email, 'password': password, 'name': name}),
     );
     return response.statusCode == 200;
@@ -1,32 +1,123 @@
 import 'dart:io';
+import 'package:flutter/widgets.dart';
 import 'package:http/http.dart' as http;
 import 'dart:convert';
+import 'api_service.dart';
 
 class ImageService {
-  static const String baseUrl = 'http://localhost:8080/api';
+  static const String serverUrl = 'http://localhost:8080';
+  static const String baseUrl = '$serverUrl/api';
+
+  // Larger images go up in chunks so a dropped connection resumes instead of restarting
+  static const int chunkThreshold = 1024 * 1024;
+  static const int maxChunkRetries = 3;
+
+  // Uploaded images are fetched at the closest generated width instead of full size
+  static String sized(BuildContext context, String url, double logicalWidth) {
+    final resolved = url.startsWith('/') ? '$serverUrl$url' : url;
+    if (!resolved.contains('/uploads/')) {
+      return resolved;
+    }
+    final pixels = (logicalWidth * MediaQuery.of(context).devicePixelRatio).ceil();
+    return Uri.parse(resolved).replace(queryParameters: {'w': '$pixels'}).toString();
+  }
 
   static Future<String?> uploadImage(File imageFile) async {
     try {
-      var request = http.MultipartRequest(
-        'POST',
-        Uri.parse('$baseUrl/upload/image'),
-      );
-      
-      request.files.add(
-        await http.MultipartFile.fromPath('file', imageFile.path),
-      );
-      
-      var response = await request.send();
-      
-      if (response.statusCode == 200) {
-        var responseData = await response.stream.bytesToString();
-        var jsonData = jsonDecode(responseData);
-        return jsonData['url'];
+      final length = await imageFile.length();
+      if (length <= chunkThreshold) {
+        return await _uploadWhole(imageFile, length);
       }
-      return null;
+      return await _uploadInChunks(imageFile, length);
     } catch (e) {
       print('Image upload error: $e');
       return null;
     }
   }
-}
\ No newline at end of file
+
+  static Future<String?> _uploadWhole(File imageFile, int length) async {
+    final request = http.StreamedRequest('POST', Uri.parse('$baseUrl/upload/image'));
+    request.headers.addAll(ApiService.authHeaders());
+    request.headers['Content-Type'] = 'application/octet-stream';
+    request.contentLength = length;
+    imageFile.openRead().listen(request.sink.add,
+        onDone: request.sink.close, onError: request.sink.addError);
+
+    final response = await http.Response.fromStream(await request.send());
+    if (response.statusCode == 200) {
+      return jsonDecode(response.body)['url'];
+    }
+    print('Image upload failed: ${response.statusCode} ${response.body}');
+    return null;
+  }
+
+  static Future<String?> _uploadInChunks(File imageFile, int length) async {
+    final created = await http.post(
+      Uri.parse('$baseUrl/upload/sessions'),
+      headers: {...ApiService.authHeaders(), 'Upload-Length': '$length'},
+    );
+    if (created.statusCode != 201) {
+      print('Image upload failed: ${created.statusCode} ${created.body}');
+      return null;
+    }
+    final session = jsonDecode(created.body);
+    final sessionUrl = Uri.parse('$baseUrl/upload/sessions/${session['id']}');
+    final int chunkSize = session['maxChunkBytes'];
+
+    final file = await imageFile.open();
+    try {
+      int offset = 0;
+      int failures = 0;
+      while (offset < length) {
+        await file.setPosition(offset);
+        final chunk = await file.read(chunkSize);
+        http.Response response;
+        try {
+          response = await http.patch(
+            sessionUrl,
+            headers: {
+              ...ApiService.authHeaders(),
+              'Content-Type': 'application/octet-stream',
+              'Upload-Offset': '$offset',
+            },
+            body: chunk,
+          );
+        } catch (e) {
+          if (e is! IOException && e is! http.ClientException) rethrow;
+          if (++failures > maxChunkRetries) rethrow;
+          // Part of the chunk may have been stored; continue from wherever the server got to
+          offset = await _currentOffset(sessionUrl) ?? offset;
+          continue;
+        }
+
+        if (response.statusCode == 200) {
+          final status = jsonDecode(response.body);
+          if (status['url'] != null) {
+            return status['url'];
+          }
+          offset = status['offset'];
+          failures = 0;
+        } else if (response.statusCode == 409 &&
+            response.headers['upload-offset'] != null &&
+            ++failures <= maxChunkRetries) {
+          offset = int.parse(response.headers['upload-offset']!);
+        } else {
+          print('Image upload failed: ${response.statusCode} ${response.body}');
+          return null;
+        }
+      }
+      return null;
+    } finally {
+      await file.close();
+    }
+  }
+
+  static Future<int?> _currentOffset(Uri sessionUrl) async {
+    try {
+      final response = await http.get(sessionUrl, headers: ApiService.authHeaders());
+      return response.statusCode == 200 ? jsonDecode(response.body)['offset'] : null;
+    } catch (e) {
+      return null;
+    }
+  }
+}
@@ -4,6 +4,7 @@ import '../models/food_item.dart';
 import '../models/user.dart';
 import '../providers/cart_provider.dart';
 import '../screens/food_detail_screen.dart';
+import '../services/image_service.dart';
 
 class AnimatedFoodCard extends StatefulWidget {
   final FoodItem item;
@@ -104,7 +105,11 @@ class _AnimatedFoodCardState extends State<AnimatedFoodCard>
                                 widget.item.imageUrl != null
                                     ? DecorationImage(
                                       image: NetworkImage(
-                                        widget.item.imageUrl!,
+                                        ImageService.sized(
+                                          context,
+                                          widget.item.imageUrl!,
+                                          MediaQuery.of(context).size.width / 2,
+                                        ),
                                       ),
                                       fit: BoxFit.cover,
                                     )